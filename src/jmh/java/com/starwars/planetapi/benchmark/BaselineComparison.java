@@ -0,0 +1,112 @@
+package com.starwars.planetapi.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara dois arquivos de resultado JSON do JMH, benchmark a benchmark (incluindo os {@code @Param}), e
+ * atualiza o baseline com um resultado.
+ */
+class BaselineComparison {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BaselineComparison() {}
+
+    record Regression(String benchmark, String mode, double baseline, double current, double change) {
+
+        @Override
+        public String toString() {
+            return String.format("%s [%s]: baseline %.3f, atual %.3f (%+.1f%%)", benchmark, mode, baseline, current, change * 100);
+        }
+    }
+
+    /**
+     * @param regressions benchmarks que pioraram além do limite
+     * @param missing     benchmarks do resultado que não estão no baseline e por isso não foram comparados
+     */
+    record Comparison(List<Regression> regressions, List<String> missing) {
+
+        boolean passed() {
+            return regressions.isEmpty() && missing.isEmpty();
+        }
+    }
+
+    /**
+     * Um benchmark regrediu quando piorou mais que {@code threshold} mesmo comparando os extremos favoráveis dos
+     * intervalos de confiança ({@code score ± scoreError}) dos dois resultados; uma diferença dentro do ruído da
+     * medição não derruba o build.
+     */
+    static Comparison compare(Path result, Path baseline, double threshold) throws IOException {
+        Map<String, JsonNode> previous = index(MAPPER.readTree(baseline.toFile()));
+        List<Regression> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> entry : index(MAPPER.readTree(result.toFile())).entrySet()) {
+            JsonNode before = previous.get(entry.getKey());
+            if (before == null) {
+                missing.add(entry.getKey());
+                continue;
+            }
+            String mode = entry.getValue().path("mode").asText();
+            double baselineScore = before.path("primaryMetric").path("score").asDouble();
+            double baselineError = error(before);
+            double currentScore = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double currentError = error(entry.getValue());
+            // Em throughput quanto maior melhor; nos modos de tempo, quanto menor melhor.
+            double change = "thrpt".equals(mode)
+                ? ((baselineScore - baselineError) - (currentScore + currentError)) / baselineScore
+                : ((currentScore - currentError) - (baselineScore + baselineError)) / baselineScore;
+            if (change > threshold) {
+                regressions.add(new Regression(entry.getKey(), mode, baselineScore, currentScore, change));
+            }
+        }
+        return new Comparison(regressions, missing);
+    }
+
+    /**
+     * Grava no baseline os benchmarks do resultado, substituindo os que já existiam e mantendo os que não rodaram,
+     * para uma rodada com {@code -Djmh.include} não apagar o resto.
+     */
+    static void update(Path result, Path baseline) throws IOException {
+        Map<String, JsonNode> merged = Files.exists(baseline)
+            ? index(MAPPER.readTree(baseline.toFile()))
+            : new LinkedHashMap<>();
+        index(MAPPER.readTree(result.toFile())).forEach((name, run) -> {
+            // As amostras brutas só inflariam o arquivo; a comparação usa o score.
+            strip(run.path("primaryMetric"));
+            run.path("secondaryMetrics").forEach(BaselineComparison::strip);
+            merged.put(name, run);
+        });
+        ArrayNode runs = MAPPER.createArrayNode().addAll(merged.values());
+        Files.createDirectories(baseline.toAbsolutePath().getParent());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(baseline.toFile(), runs);
+    }
+
+    /** Com uma só iteração o JMH grava {@code NaN} como erro; nesse caso compara só os scores. */
+    private static double error(JsonNode run) {
+        double error = run.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isFinite(error) ? error : 0;
+    }
+
+    private static void strip(JsonNode metric) {
+        if (metric instanceof ObjectNode object) {
+            object.remove(List.of("rawData", "rawDataHistogram"));
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        results.forEach(run -> byName.put(run.path("benchmark").asText() + run.path("params"), run));
+        return byName;
+    }
+}
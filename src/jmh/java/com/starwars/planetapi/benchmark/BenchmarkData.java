@@ -0,0 +1,41 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.PlanetApiApplication;
+import com.starwars.planetapi.domain.Planet;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Dados sintéticos e contexto Spring sobre H2 em memória compartilhados pelos benchmarks.
+ */
+final class BenchmarkData {
+
+    static final String[] CLIMATES = {"arid", "temperate", "tropical", "frozen", "murky", "temperate, tropical"};
+    static final String[] TERRAINS = {"desert", "grasslands, mountains", "jungle, rainforests", "tundra, ice caves", "swamp", "forests, mountains"};
+
+    private BenchmarkData() {}
+
+    static Planet planet(long index) {
+        return new Planet(index, "Planet " + index, CLIMATES[(int) (index % CLIMATES.length)], TERRAINS[(int) (index % TERRAINS.length)]);
+    }
+
+    static Planet newPlanet(long index) {
+        Planet planet = planet(index);
+        planet.setId(null);
+        return planet;
+    }
+
+    static ConfigurableApplicationContext startContext(String database, String... extraArgs) {
+        String[] args = new String[extraArgs.length + 5];
+        args[0] = "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        args[1] = "--spring.datasource.username=sa";
+        args[2] = "--spring.datasource.password=";
+        args[3] = "--logging.level.root=WARN";
+        args[4] = "--spring.main.banner-mode=off";
+        System.arraycopy(extraArgs, 0, args, 5, extraArgs.length);
+        return new SpringApplicationBuilder(PlanetApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(args);
+    }
+}
@@ -0,0 +1,72 @@
+package com.starwars.planetapi.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Roda os benchmarks e grava o resultado em JSON. A comparação é opcional: com {@code -Djmh.baseline=arquivo} falha
+ * (exit 1) se algum benchmark ficou pior que o baseline além do limite e do erro dos scores, se o arquivo não existe
+ * ou se algum benchmark rodado não está nele. Com {@code -Djmh.updateBaseline=true} grava o resultado nesse arquivo
+ * em vez de comparar. Chamado pelo profile {@code jmh} do pom.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Path result = Path.of(System.getProperty("jmh.result", "target/jmh-result.json"));
+        String baselineFile = System.getProperty("jmh.baseline", "");
+        double threshold = Double.parseDouble(System.getProperty("jmh.threshold", "0.15"));
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(System.getProperty("jmh.include", ".*"))
+            .resultFormat(ResultFormatType.JSON)
+            .result(result.toString());
+        // -Djmh.prof=gc acrescenta gc.alloc.rate.norm (bytes alocados por operação) a cada benchmark.
+        if ("gc".equals(System.getProperty("jmh.prof"))) {
+            options.addProfiler(GCProfiler.class);
+        }
+        // -Djmh.threads=N roda todos os benchmarks com N threads, no lugar do @Threads de cada classe.
+        int threads = Integer.getInteger("jmh.threads", 0);
+        if (threads > 0) {
+            options.threads(threads);
+        }
+        boolean updateBaseline = Boolean.getBoolean("jmh.updateBaseline");
+        if (updateBaseline && baselineFile.isBlank()) {
+            System.err.println("-Djmh.updateBaseline=true precisa de -Djmh.baseline=<arquivo>.");
+            System.exit(1);
+        }
+        new Runner(options.build()).run();
+
+        // O baseline só vale para a máquina em que foi gravado, então não há um padrão versionado no repositório.
+        if (baselineFile.isBlank()) {
+            System.out.println("Resultado em " + result + "; informe -Djmh.baseline=<arquivo> para comparar.");
+            return;
+        }
+        Path baseline = Path.of(baselineFile);
+        if (updateBaseline) {
+            BaselineComparison.update(result, baseline);
+            System.out.println("Baseline atualizado em " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.err.println("Sem baseline em " + baseline + "; rode com -Djmh.updateBaseline=true nesta máquina para criar um.");
+            System.exit(1);
+        }
+
+        BaselineComparison.Comparison comparison = BaselineComparison.compare(result, baseline, threshold);
+        comparison.missing().forEach(benchmark -> System.err.println("SEM BASELINE " + benchmark));
+        comparison.regressions().forEach(regression -> System.err.println("REGRESSÃO " + regression));
+        if (!comparison.missing().isEmpty()) {
+            System.err.println("Rode os benchmarks novos com -Djmh.updateBaseline=true para incluí-los no baseline.");
+        }
+        if (!comparison.passed()) {
+            System.exit(1);
+        }
+        System.out.printf("Nenhuma regressão acima de %.0f%% (além do erro dos scores) em relação ao baseline.%n", threshold * 100);
+    }
+}
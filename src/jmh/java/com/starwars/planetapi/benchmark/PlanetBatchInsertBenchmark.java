@@ -0,0 +1,68 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetBatchResult;
+import com.starwars.planetapi.domain.PlanetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Linhas gravadas por segundo na criação de {@value #ROWS} planetas novos: {@code batch} pelo
+ * {@link PlanetService#createAll} (lotes JDBC de {@code planet.batch.size} linhas, uma transação por lote) e
+ * {@code single} pelo {@link PlanetService#create}, uma transação por linha. Cada operação do JMH é uma linha.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanetBatchInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"100", "500"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private PlanetService planetService;
+    private long nextIndex = 1;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkData.startContext("batch-insert-" + batchSize, "--planet.batch.size=" + batchSize);
+        planetService = context.getBean(PlanetService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<PlanetBatchResult> batch() {
+        return planetService.createAll(nextPlanets().iterator());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Planet> single() {
+        List<Planet> created = new ArrayList<>(ROWS);
+        for (Planet planet : nextPlanets()) {
+            created.add(planetService.create(planet));
+        }
+        return created;
+    }
+
+    private List<Planet> nextPlanets() {
+        long first = nextIndex;
+        nextIndex += ROWS;
+        return LongStream.range(first, first + ROWS).mapToObj(BenchmarkData::newPlanet).toList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.starwars.planetapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.web.ContentCoding;
+import com.starwars.planetapi.web.PlanetCompressedLists;
+import com.starwars.planetapi.web.PlanetJsonConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * CPU gasta para comprimir o JSON de uma listagem em cada codificação e nível ({@code compress}), contra servir o
+ * corpo já comprimido do {@link PlanetCompressedLists} ({@code cached}). O tamanho comprimido e a razão sobre o JSON
+ * são impressos no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetCompressionBenchmark {
+
+    private static final Type VIEW_LIST = new TypeReference<List<PlanetView>>() {}.getType();
+
+    @Param({"GZIP", "ZSTD"})
+    private ContentCoding coding;
+
+    @Param({"1", "3", "6", "9"})
+    private int level;
+
+    @Param({"1000"})
+    private int size;
+
+    private byte[] json;
+    private ByteArrayOutputStream output;
+    private PlanetCompressedLists compressedLists;
+    private PlanetCompressedLists.Key key;
+    private List<PlanetView> views;
+
+    @Setup
+    public void setup() throws Exception {
+        PlanetJsonConverter jsonConverter = new PlanetJsonConverter(Jackson2ObjectMapperBuilder.json().build(), 10_000);
+        views = LongStream.rangeClosed(1, size).mapToObj(BenchmarkData::planet).map(PlanetView::of).toList();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        jsonConverter.write(views, VIEW_LIST, MediaType.APPLICATION_JSON, new Output(body));
+        json = body.toByteArray();
+        output = new ByteArrayOutputStream(json.length);
+        int compressed = compress();
+        System.out.printf("%n%s nível %d: %d -> %d bytes (%.1f%%)%n", coding, level, json.length, compressed, 100.0 * compressed / json.length);
+
+        compressedLists = new PlanetCompressedLists(jsonConverter, DataSize.ofKilobytes(2), DataSize.ofMegabytes(32), level, level);
+        key = new PlanetCompressedLists.Key(null, null, PlanetView.select(null), "benchmark", coding);
+        cached();
+    }
+
+    @Benchmark
+    public int compress() throws Exception {
+        output.reset();
+        try (OutputStream out = coding.compress(output, level)) {
+            out.write(json);
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    public int cached() {
+        return compressedLists.get(key, () -> views).bytes().length;
+    }
+
+    private record Output(OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.starwars.planetapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetListVersion;
+import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.web.GeneralExceptionHandler;
+import com.starwars.planetapi.web.PlanetController;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Caminho MVC do {@link PlanetController} (binding, handler, serialização) com o serviço substituído por um stub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetControllerBenchmark {
+
+    @Param({"100"})
+    private int size;
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Planet> planets = LongStream.rangeClosed(1, size).mapToObj(BenchmarkData::planet).toList();
+
+        PlanetService planetService = Mockito.mock(PlanetService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(planetService.get(1L)).thenReturn(Optional.of(planets.getFirst()));
+        Mockito.when(planetService.listVersion(null, null)).thenReturn(new PlanetListVersion(size, (long) size, Instant.EPOCH));
+        Mockito.when(planetService.list(null, null, Set.copyOf(PlanetView.FIELDS))).thenReturn(planets.stream().map(PlanetView::of).toList());
+
+        PlanetController controller = new PlanetController();
+        ReflectionTestUtils.setField(controller, "planetService", planetService);
+        ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+            .setControllerAdvice(new GeneralExceptionHandler())
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+            .build();
+    }
+
+    @Benchmark
+    public MvcResult getById() throws Exception {
+        return mockMvc.perform(get("/planets/1")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult listAll() throws Exception {
+        return mockMvc.perform(get("/planets")).andReturn();
+    }
+}
@@ -0,0 +1,87 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetRepository;
+import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.exception.PlanetJaExisteException;
+import com.starwars.planetapi.domain.outbox.PlanetOutbox;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Criação com metade dos nomes repetidos, como numa rajada de retentativas. {@code rowCount} é o caminho atual
+ * ({@link PlanetService#create}, conflito pela contagem de linhas); {@code constraintException} é o anterior,
+ * {@code save} do JPA com o conflito vindo da {@link DataIntegrityViolationException} e da transação desfeita.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PlanetCreateBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PlanetService planetService;
+    private PlanetRepository planetRepository;
+    private PlanetOutbox planetOutbox;
+    private TransactionTemplate transactionTemplate;
+    private final AtomicLong nextIndex = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        context = BenchmarkData.startContext("create");
+        planetService = context.getBean(PlanetService.class);
+        planetRepository = context.getBean(PlanetRepository.class);
+        planetOutbox = context.getBean(PlanetOutbox.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        planetService.createAll(LongStream.rangeClosed(1, rows).mapToObj(BenchmarkData::newPlanet).iterator());
+        nextIndex.set(rows + 1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Planet rowCount() {
+        try {
+            return planetService.create(nextPlanet());
+        } catch (PlanetJaExisteException ex) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Planet constraintException() {
+        Planet planet = nextPlanet();
+        try {
+            return transactionTemplate.execute(status -> {
+                Planet created = planetRepository.save(planet);
+                planetOutbox.recordCreated(created);
+                return created;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            return null;
+        }
+    }
+
+    private Planet nextPlanet() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long index = random.nextBoolean() ? random.nextLong(1, rows + 1) : nextIndex.getAndIncrement();
+        return BenchmarkData.newPlanet(index);
+    }
+}
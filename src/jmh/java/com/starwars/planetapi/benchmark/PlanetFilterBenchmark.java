@@ -0,0 +1,69 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetRepository;
+import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.QueryBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Filtro de {@code GET /planets} no banco: o Query-by-Example com {@code withIgnoreCase()} que existia antes
+ * ({@code lower(col) = lower(?)}, sem índice) contra a {@link org.springframework.data.jpa.domain.Specification} de
+ * {@link QueryBuilder} sobre {@code terrain_key}/{@code climate_key}, indexadas. A tabela tem {@value #TERRAINS}
+ * terrains distintos, então cada consulta devolve poucas linhas e o tempo é o da busca, não o da leitura.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Com 1 s por iteração os tempos ainda caíam a cada medição logo depois da carga da tabela.
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanetFilterBenchmark {
+
+    private static final int TERRAINS = 1000;
+    private static final ExampleMatcher IGNORE_CASE = ExampleMatcher.matchingAll().withIgnoreCase().withIgnoreNullValues();
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PlanetRepository planetRepository;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkData.startContext("filter-" + rows);
+        planetRepository = context.getBean(PlanetRepository.class);
+        context.getBean(PlanetService.class).createAll(LongStream.rangeClosed(1, rows)
+            .mapToObj(index -> new Planet("Planet " + index, BenchmarkData.CLIMATES[(int) (index % BenchmarkData.CLIMATES.length)], "Terrain " + index % TERRAINS))
+            .iterator());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Planet> queryByExample() {
+        return planetRepository.findAll(Example.of(filters(), IGNORE_CASE));
+    }
+
+    @Benchmark
+    public List<Planet> indexedSpecification() {
+        return planetRepository.findAll(QueryBuilder.makeQuery(filters()));
+    }
+
+    // Mesma forma de um pedido real: valores em outra caixa que a gravada.
+    private static Planet filters() {
+        return new Planet("TERRAIN " + ThreadLocalRandom.current().nextInt(TERRAINS), "Temperate");
+    }
+}
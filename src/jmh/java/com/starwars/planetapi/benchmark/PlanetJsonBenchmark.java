@@ -0,0 +1,60 @@
+package com.starwars.planetapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.Planet;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetJsonBenchmark {
+
+    private static final TypeReference<List<Planet>> PLANET_LIST = new TypeReference<>() {};
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private Planet planet;
+    private List<Planet> planets;
+    private byte[] planetJson;
+    private byte[] planetsJson;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        planet = BenchmarkData.planet(1);
+        planets = LongStream.rangeClosed(1, size).mapToObj(BenchmarkData::planet).toList();
+        planetJson = objectMapper.writeValueAsBytes(planet);
+        planetsJson = objectMapper.writeValueAsBytes(planets);
+    }
+
+    @Benchmark
+    public byte[] serializePlanet() throws Exception {
+        return objectMapper.writeValueAsBytes(planet);
+    }
+
+    @Benchmark
+    public Planet deserializePlanet() throws Exception {
+        return objectMapper.readValue(planetJson, Planet.class);
+    }
+
+    @Benchmark
+    public byte[] serializePlanetList() throws Exception {
+        return objectMapper.writeValueAsBytes(planets);
+    }
+
+    @Benchmark
+    public List<Planet> deserializePlanetList() throws Exception {
+        return objectMapper.readValue(planetsJson, PLANET_LIST);
+    }
+}
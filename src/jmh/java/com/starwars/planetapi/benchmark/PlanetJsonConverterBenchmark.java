@@ -0,0 +1,100 @@
+package com.starwars.planetapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.web.PlanetJsonConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Escrita das respostas de planeta pelo conversor do Jackson que o Spring MVC usa ({@code converter=jackson}) e pelo
+ * {@link PlanetJsonConverter} com os fragmentos já codificados ({@code converter=cached}). Rode com
+ * {@code -Djmh.prof=gc} para comparar também os bytes alocados por resposta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetJsonConverterBenchmark {
+
+    private static final Type VIEW_LIST = new TypeReference<List<PlanetView>>() {}.getType();
+
+    @Param({"jackson", "cached"})
+    private String converter;
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private GenericHttpMessageConverter<Object> httpMessageConverter;
+    private Planet planet;
+    private List<PlanetView> views;
+    private Output output;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        httpMessageConverter = converter.equals("cached")
+            ? new PlanetJsonConverter(objectMapper, 10_000)
+            : new MappingJackson2HttpMessageConverter(objectMapper);
+        planet = BenchmarkData.planet(1);
+        views = LongStream.rangeClosed(1, size).mapToObj(BenchmarkData::planet).map(PlanetView::of).toList();
+        output = new Output();
+        // Primeira escrita fora da medição: no caminho cached, todos os fragmentos já estão no cache.
+        writePlanet();
+        writePlanetList();
+    }
+
+    @Benchmark
+    public int writePlanet() throws Exception {
+        output.reset();
+        httpMessageConverter.write(planet, Planet.class, MediaType.APPLICATION_JSON, output);
+        return output.body.size();
+    }
+
+    @Benchmark
+    public int writePlanetList() throws Exception {
+        output.reset();
+        httpMessageConverter.write(views, VIEW_LIST, MediaType.APPLICATION_JSON, output);
+        return output.body.size();
+    }
+
+    /**
+     * Resposta reaproveitada entre as operações, para medir só a escrita do corpo.
+     */
+    private static final class Output implements HttpOutputMessage {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256 * 1024);
+        private HttpHeaders headers = new HttpHeaders();
+
+        void reset() {
+            body.reset();
+            headers = new HttpHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetRepository;
+import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.QueryBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Listagem completa lida como entidades gerenciadas e como projeções {@link PlanetView}. Rode com
+ * {@code -Djmh.prof=gc} para comparar também os bytes alocados por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetListBenchmark {
+
+    private static final Set<String> ALL_FIELDS = Set.copyOf(PlanetView.FIELDS);
+    private static final Set<String> ID_AND_NAME = Set.of("id", "name");
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PlanetRepository planetRepository;
+    private Specification<Planet> all;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkData.startContext("list");
+        planetRepository = context.getBean(PlanetRepository.class);
+        context.getBean(PlanetService.class).createAll(LongStream.rangeClosed(1, rows).mapToObj(BenchmarkData::newPlanet).iterator());
+        all = QueryBuilder.makeQuery(new Planet());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Planet> entities() {
+        return planetRepository.findAll(all);
+    }
+
+    @Benchmark
+    public List<PlanetView> views() {
+        return planetRepository.findViews(all, ALL_FIELDS);
+    }
+
+    @Benchmark
+    public List<PlanetView> viewsWithIdAndName() {
+        return planetRepository.findViews(all, ID_AND_NAME);
+    }
+}
@@ -0,0 +1,81 @@
+package com.starwars.planetapi.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de carga HTTP em malha fechada para comparar modos de execução da aplicação já rodando
+ * (por exemplo com e sem o profile {@code virtual}). Cada cliente é uma virtual thread que repete a
+ * requisição até o fim do tempo; ao final imprime vazão, percentis de latência e respostas por status.
+ * <p>
+ * Várias URLs separadas por vírgula são medidas uma depois da outra, com a mesma carga, para comparar
+ * instâncias lado a lado (por exemplo a stack MVC na 8080 e a {@code reactive} na 8081).
+ * <p>
+ * Uso: {@code java -cp <test classpath> com.starwars.planetapi.benchmark.PlanetLoadRunner <url[,url...]> [clientes] [segundos]}
+ */
+public class PlanetLoadRunner {
+
+    public static void main(String[] args) throws Exception {
+        String urls = args.length > 0 ? args[0] : "http://localhost:8080/planets/1";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        for (String url : urls.split(",")) {
+            run(URI.create(url.trim()), clients, duration);
+        }
+    }
+
+    private static void run(URI uri, int clients, Duration duration) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+        ConcurrentLinkedQueue<long[]> latenciesPerClient = new ConcurrentLinkedQueue<>();
+        AtomicLong[] statuses = new AtomicLong[6];
+        Arrays.setAll(statuses, index -> new AtomicLong());
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                executor.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception ex) {
+                            status = 0;
+                        }
+                        latencies.add(System.nanoTime() - start);
+                        statuses[status / 100].incrementAndGet();
+                    }
+                    latenciesPerClient.add(latencies.stream().mapToLong(Long::longValue).toArray());
+                });
+            }
+        }
+
+        long[] all = latenciesPerClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%s com %d clientes por %ds%n", uri, clients, duration.toSeconds());
+        System.out.printf("requisições: %d (%.0f req/s)%n", all.length, all.length / (double) duration.toSeconds());
+        System.out.printf("latência p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms%n",
+            percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), percentile(all, 1.0));
+        System.out.printf("status: erro=%d 2xx=%d 3xx=%d 4xx=%d 5xx=%d%n",
+            statuses[0].get(), statuses[2].get(), statuses[3].get(), statuses[4].get(), statuses[5].get());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetMetrics;
+import com.starwars.planetapi.domain.PlanetRepository;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do timer do {@link PlanetMetrics} em volta de uma chamada trivial, com o registry do Prometheus e o
+ * histograma ligado como em produção. A diferença entre {@code plain} e {@code timed} é o overhead por operação.
+ * {@code findById} é uma busca por id no banco, numa sessão própria, com as estatísticas do Hibernate ligadas e
+ * desligadas ({@code statistics}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetMetricsBenchmark {
+
+    private final Planet planet = BenchmarkData.planet(1);
+    private PlanetMetrics planetMetrics;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        planetMetrics = new PlanetMetrics(registry);
+    }
+
+    @Benchmark
+    public String plain() {
+        return planet.getName();
+    }
+
+    @Benchmark
+    public String timed() {
+        return planetMetrics.time("get", planet::getName);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    public Optional<Planet> findById(Database database) {
+        return database.planetRepository.findById(database.id);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"false", "true"})
+        private boolean statistics;
+
+        private ConfigurableApplicationContext context;
+        private PlanetRepository planetRepository;
+        private long id;
+
+        @Setup
+        public void setup() {
+            context = BenchmarkData.startContext("metrics-" + statistics,
+                "--spring.jpa.properties.hibernate.generate_statistics=" + statistics);
+            planetRepository = context.getBean(PlanetRepository.class);
+            id = planetRepository.save(BenchmarkData.newPlanet(1)).getId();
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+}
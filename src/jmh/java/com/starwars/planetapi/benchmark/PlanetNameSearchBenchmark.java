@@ -0,0 +1,117 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetNameIndex;
+import com.starwars.planetapi.domain.PlanetNameMatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca por nome no {@link PlanetNameIndex} com {@code names} nomes gerados a partir de sílabas. Em
+ * {@code SampleTime} o JMH informa os percentis, inclusive o p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PlanetNameSearchBenchmark {
+
+    private static final String[] SYLLABLES = {"ta", "too", "ine", "al", "de", "ra", "an", "ya", "vin", "ho", "th",
+        "da", "go", "bah", "na", "boo", "ko", "ri", "ban", "mus", "ta", "fa", "ex", "kes", "sel", "cor", "us", "cant",
+        "end", "or", "bes", "pin", "jak", "ku", "scar", "if", "ryl", "oth", "lah", "mal", "ach", "or", "zel", "tyn"};
+    private static final int QUERIES = 1024;
+    private static final int LIMIT = 10;
+
+    @Param({"1000000"})
+    private int names;
+
+    private PlanetNameIndex planetNameIndex;
+    private String[] prefixQueries;
+    private String[] fuzzyQueries;
+    private String[] missQueries;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        // Nomes únicos, como garante a constraint uk_planets_name.
+        Set<String> unique = new HashSet<>(names * 2);
+        while (unique.size() < names) {
+            unique.add(randomName(random));
+        }
+        List<Planet> planets = new ArrayList<>(names);
+        long id = 1;
+        for (String name : unique) {
+            planets.add(new Planet(id++, name, "temperate", "mountains"));
+        }
+        planetNameIndex = new PlanetNameIndex(null);
+        planetNameIndex.replaceAll(planets);
+
+        prefixQueries = new String[QUERIES];
+        fuzzyQueries = new String[QUERIES];
+        missQueries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = planets.get(random.nextInt(names)).getName().toLowerCase();
+            prefixQueries[i] = name.substring(0, Math.min(name.length(), 3 + random.nextInt(4)));
+            fuzzyQueries[i] = typos(name, 1 + random.nextInt(2), random);
+            missQueries[i] = "qq" + typos(name, 2, random);
+        }
+    }
+
+    @Benchmark
+    public List<PlanetNameMatch> prefix() {
+        return planetNameIndex.search(prefixQueries[next++ & (QUERIES - 1)], LIMIT);
+    }
+
+    @Benchmark
+    public List<PlanetNameMatch> fuzzy() {
+        return planetNameIndex.search(fuzzyQueries[next++ & (QUERIES - 1)], LIMIT);
+    }
+
+    /**
+     * Pior caso: nada casa, então todas as distâncias são tentadas até {@link PlanetNameIndex#MAX_DISTANCE}.
+     */
+    @Benchmark
+    public List<PlanetNameMatch> miss() {
+        return planetNameIndex.search(missQueries[next++ & (QUERIES - 1)], LIMIT);
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        if (random.nextBoolean()) {
+            name.append(' ').append(1 + random.nextInt(99));
+        }
+        return name.toString();
+    }
+
+    private static String typos(String name, int count, Random random) {
+        StringBuilder typo = new StringBuilder(name);
+        for (int i = 0; i < count; i++) {
+            int at = random.nextInt(typo.length());
+            char c = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+                case 0 -> typo.setCharAt(at, c);
+                case 1 -> typo.insert(at, c);
+                default -> {
+                    if (typo.length() > 1) {
+                        typo.deleteCharAt(at);
+                    }
+                }
+            }
+        }
+        return typo.toString();
+    }
+}
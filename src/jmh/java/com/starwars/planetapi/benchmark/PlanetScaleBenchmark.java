@@ -0,0 +1,107 @@
+package com.starwars.planetapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.PlanetCursor;
+import com.starwars.planetapi.domain.PlanetPage;
+import com.starwars.planetapi.domain.PlanetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Os três jeitos de ler a tabela inteira em JSON conforme ela cresce: {@code list} é o {@code GET /planets}, que
+ * monta a lista toda antes de serializar; {@code page} é uma página de 100 do {@code GET /planets/page} a partir
+ * do meio da tabela; {@code stream} é o {@code GET /planets/stream}, escrito linha a linha. O modo
+ * {@code SampleTime} grava os percentis (p99 em {@code scorePercentiles}) no resultado JSON. O pico de heap de
+ * cada iteração, que inclui a tabela do H2, é impresso no fim junto com o heap ocupado depois da carga.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PlanetScaleBenchmark {
+
+    private static final List<MemoryPoolMXBean> HEAP = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .toList();
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PlanetService planetService;
+    private ObjectMapper objectMapper;
+    private String middle;
+    private long residentBytes;
+    private long peakBytes;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkData.startContext("scale-" + rows);
+        planetService = context.getBean(PlanetService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        planetService.createAll(LongStream.rangeClosed(1, rows).mapToObj(BenchmarkData::newPlanet).iterator());
+        middle = PlanetCursor.encode(rows / 2L);
+        System.gc();
+        residentBytes = heapUsed();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        System.gc();
+        HEAP.forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void recordPeak() {
+        peakBytes = Math.max(peakBytes, HEAP.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%d linhas: heap depois da carga %d MB, pico %d MB%n", rows, residentBytes >> 20, peakBytes >> 20);
+        context.close();
+    }
+
+    @Benchmark
+    public void list() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), planetService.list(null, null));
+    }
+
+    @Benchmark
+    public void page() throws IOException {
+        PlanetPage page = planetService.page(null, null, middle, 100);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), page);
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            planetService.stream(null, null, planet -> {
+                try {
+                    generator.writeObject(planet);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
+
+    private static long heapUsed() {
+        return HEAP.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+}
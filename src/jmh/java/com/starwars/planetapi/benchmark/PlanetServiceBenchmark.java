@@ -0,0 +1,72 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetPage;
+import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.TokenMatch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * {@link PlanetService} com o contexto completo sobre H2 em memória.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetServiceBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PlanetService planetService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkData.startContext("service");
+        planetService = context.getBean(PlanetService.class);
+        planetService.createAll(LongStream.rangeClosed(1, rows).mapToObj(BenchmarkData::newPlanet).iterator());
+        // Aquece o cache: os benchmarks de leitura por id/nome medem o caminho de acerto.
+        LongStream.rangeClosed(1, rows).forEach(id -> planetService.findByName("Planet " + id));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Planet> getByIdCached() {
+        return planetService.get(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public Optional<Planet> findByNameCached() {
+        return planetService.findByName("Planet " + ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public List<PlanetView> listByTerrainAndClimate() {
+        return planetService.list("Desert", "arid");
+    }
+
+    @Benchmark
+    public List<Planet> listByTokens() {
+        return planetService.listByTokens("mountains", "temperate", TokenMatch.ALL);
+    }
+
+    @Benchmark
+    public PlanetPage firstPage() {
+        return planetService.page(null, null, null, 100);
+    }
+}
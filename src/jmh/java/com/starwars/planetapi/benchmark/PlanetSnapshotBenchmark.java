@@ -0,0 +1,65 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.PlanetView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Leituras do {@link PlanetService} servidas pelo snapshot em memória ({@code source=snapshot}) ou pelo caminho
+ * do repositório ({@code source=repository}: cache já aquecido para get e findByName, consulta ao H2 para a
+ * listagem). Para ver como cada caminho escala, rode com {@code -Djmh.threads=1}, {@code 8} e {@code 64}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetSnapshotBenchmark {
+
+    @Param({"snapshot", "repository"})
+    private String source;
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PlanetService planetService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkData.startContext("snapshot-" + source, "--planet.snapshot.enabled=" + source.equals("snapshot"));
+        planetService = context.getBean(PlanetService.class);
+        planetService.createAll(LongStream.rangeClosed(1, rows).mapToObj(BenchmarkData::newPlanet).iterator());
+        // No caminho do repositório, compara com o melhor caso: o cache de ids e nomes já carregado.
+        LongStream.rangeClosed(1, rows).forEach(id -> planetService.findByName("Planet " + id));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Planet> getById() {
+        return planetService.get(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public Optional<Planet> findByName() {
+        return planetService.findByName("Planet " + ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public List<PlanetView> listByTerrainAndClimate() {
+        return planetService.list("Desert", "arid");
+    }
+}
@@ -0,0 +1,89 @@
+package com.starwars.planetapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.web.PlanetProtobufConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Codificação e decodificação de uma lista de planetas em cada formato aceito por {@code /planets}, pelos mesmos
+ * conversores que o Spring MVC usa. O tamanho do corpo de cada formato é impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetWireFormatBenchmark {
+
+    private static final Type PLANET_LIST = new TypeReference<List<Planet>>() {}.getType();
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    @Param({"1000"})
+    private int size;
+
+    private GenericHttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private List<Planet> planets;
+    private byte[] body;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() throws Exception {
+        converter = switch (format) {
+            case "json" -> new MappingJackson2HttpMessageConverter();
+            case "cbor" -> new MappingJackson2CborHttpMessageConverter();
+            case "smile" -> new MappingJackson2SmileHttpMessageConverter();
+            default -> new PlanetProtobufConverter();
+        };
+        mediaType = converter.getSupportedMediaTypes().getFirst();
+        planets = LongStream.rangeClosed(1, size).mapToObj(BenchmarkData::planet).toList();
+        output = new ByteArrayOutputStream(256 * 1024);
+        encode();
+        body = output.toByteArray();
+        System.out.printf("%n%s: %d bytes para %d planetas (%.1f por planeta)%n", format, body.length, size, (double) body.length / size);
+    }
+
+    @Benchmark
+    public int encode() throws Exception {
+        output.reset();
+        converter.write(planets, PLANET_LIST, mediaType, new Output(output));
+        return output.size();
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return converter.read(PLANET_LIST, null, new MockHttpInputMessage(body));
+    }
+
+    private record Output(OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+    }
+}
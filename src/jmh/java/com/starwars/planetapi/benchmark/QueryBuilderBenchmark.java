@@ -0,0 +1,30 @@
+package com.starwars.planetapi.benchmark;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.QueryBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBuilderBenchmark {
+
+    private final Planet filters = new Planet("Grasslands, Mountains", "Temperate");
+    private final Planet noFilters = new Planet();
+
+    @Benchmark
+    public Specification<Planet> makeQueryWithFilters() {
+        return QueryBuilder.makeQuery(filters);
+    }
+
+    @Benchmark
+    public Specification<Planet> makeQueryWithoutFilters() {
+        return QueryBuilder.makeQuery(noFilters);
+    }
+}
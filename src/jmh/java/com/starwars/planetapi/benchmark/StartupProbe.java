@@ -0,0 +1,88 @@
+package com.starwars.planetapi.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sobe a aplicação várias vezes com o comando informado e mede o tempo até a primeira resposta HTTP (qualquer status)
+ * e a memória residente (VmRSS, lida de {@code /proc}, só no Linux) nesse instante. Imprime cada rodada e as medianas.
+ * <p>
+ * Uso: {@code java -cp <test classpath> com.starwars.planetapi.benchmark.StartupProbe <url> <rodadas> -- <comando...>}
+ */
+public class StartupProbe {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 2 || separator == args.length - 1) {
+            System.err.println("Uso: StartupProbe <url> <rodadas> -- <comando...>");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int runs = Integer.parseInt(args[1]);
+        List<String> command = Arrays.asList(args).subList(separator + 1, args.length);
+
+        long[] millis = new long[runs];
+        long[] rssKb = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long[] sample = measure(uri, command);
+            millis[run] = sample[0];
+            rssKb[run] = sample[1];
+            System.out.printf("rodada %d: primeira resposta em %d ms, RSS %.1f MB%n", run + 1, millis[run], rssKb[run] / 1024.0);
+        }
+        System.out.printf("mediana: primeira resposta em %d ms, RSS %.1f MB%n", median(millis), median(rssKb) / 1024.0);
+    }
+
+    private static long[] measure(URI uri, List<String> command) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(TIMEOUT).build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("A aplicação terminou com código " + process.exitValue());
+                }
+                try {
+                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    return new long[] {(System.nanoTime() - start) / 1_000_000, rss(process.pid())};
+                } catch (java.net.ConnectException ex) {
+                    Thread.sleep(10);
+                }
+            }
+            throw new IllegalStateException("Sem resposta em " + uri + " depois de " + TIMEOUT.toSeconds() + "s");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long rss(long pid) throws Exception {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream()
+            .filter(line -> line.startsWith("VmRSS:"))
+            .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+            .findFirst()
+            .orElse(0);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -1,9 +1,12 @@
 package com.starwars.planetapi;
 
+import com.starwars.planetapi.config.PlanetRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(PlanetRuntimeHints.class)
 public class PlanetApiApplication {
 
 	public static void main(String[] args) {
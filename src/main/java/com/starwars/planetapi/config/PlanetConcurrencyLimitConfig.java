@@ -0,0 +1,55 @@
+package com.starwars.planetapi.config;
+
+import com.netflix.concurrency.limits.limit.Gradient2Limit;
+import com.netflix.concurrency.limits.limiter.SimpleLimiter;
+import com.starwars.planetapi.web.PlanetConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limites de concorrência de {@code /planets} ({@link PlanetConcurrencyLimitFilter}), ligados por padrão e
+ * desligados com {@code planet.concurrency.enabled=false}. Cada limite começa em {@code initial-limit} e se
+ * ajusta entre {@code min-limit} e {@code max-limit}; {@code smoothing} é o peso de cada ajuste (padrão do
+ * Gradient2, 0.2).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "planet.concurrency", name = "enabled", matchIfMissing = true)
+public class PlanetConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<PlanetConcurrencyLimitFilter> planetConcurrencyLimitFilter(
+        MeterRegistry registry,
+        @Value("${planet.concurrency.read.initial-limit:20}") int readInitial,
+        @Value("${planet.concurrency.read.min-limit:2}") int readMin,
+        @Value("${planet.concurrency.read.max-limit:200}") int readMax,
+        @Value("${planet.concurrency.read.smoothing:0.2}") double readSmoothing,
+        @Value("${planet.concurrency.write.initial-limit:10}") int writeInitial,
+        @Value("${planet.concurrency.write.min-limit:1}") int writeMin,
+        @Value("${planet.concurrency.write.max-limit:50}") int writeMax,
+        @Value("${planet.concurrency.write.smoothing:0.2}") double writeSmoothing) {
+        PlanetConcurrencyLimitFilter filter = new PlanetConcurrencyLimitFilter(
+            limiter("reads", readInitial, readMin, readMax, readSmoothing),
+            limiter("writes", writeInitial, writeMin, writeMax, writeSmoothing), registry);
+        FilterRegistrationBean<PlanetConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/planets", "/planets/*");
+        return registration;
+    }
+
+    private static SimpleLimiter<Void> limiter(String name, int initial, int min, int max, double smoothing) {
+        return SimpleLimiter.newBuilder()
+            .named(name)
+            .limit(Gradient2Limit.newBuilder()
+                .initialLimit(initial)
+                .minLimit(min)
+                .maxConcurrency(max)
+                .smoothing(smoothing)
+                .build())
+            .build();
+    }
+}
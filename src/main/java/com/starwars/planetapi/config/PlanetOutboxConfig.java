@@ -0,0 +1,48 @@
+package com.starwars.planetapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.outbox.FilePlanetChangeSink;
+import com.starwars.planetapi.domain.outbox.InMemoryPlanetChangeSink;
+import com.starwars.planetapi.domain.outbox.PlanetChangeRelay;
+import com.starwars.planetapi.domain.outbox.PlanetChangeSink;
+import com.starwars.planetapi.domain.outbox.PlanetOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Relay do outbox, ativado por {@code planet.outbox.sink}: {@code memory}, {@code file} ou qualquer outro valor
+ * acompanhado de um bean {@link PlanetChangeSink} da aplicação. Sem a propriedade as alterações continuam sendo
+ * gravadas e servidas por {@code GET /planets/changes}, só não são entregues.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "planet.outbox", name = "sink")
+public class PlanetOutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "planet.outbox", name = "sink", havingValue = "memory")
+    public InMemoryPlanetChangeSink inMemoryPlanetChangeSink() {
+        return new InMemoryPlanetChangeSink();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "planet.outbox", name = "sink", havingValue = "file")
+    public FilePlanetChangeSink filePlanetChangeSink(@Value("${planet.outbox.file:planet-changes.ndjson}") Path file,
+                                                     ObjectMapper objectMapper) {
+        return new FilePlanetChangeSink(file, objectMapper);
+    }
+
+    @Bean
+    public PlanetChangeRelay planetChangeRelay(PlanetOutbox planetOutbox, PlanetChangeSink planetChangeSink,
+                                               PlatformTransactionManager transactionManager,
+                                               @Value("${planet.outbox.batch-size:500}") int batchSize,
+                                               @Value("${planet.outbox.interval:PT1S}") Duration interval) {
+        return new PlanetChangeRelay(planetOutbox, planetChangeSink, new TransactionTemplate(transactionManager), batchSize, interval);
+    }
+}
@@ -0,0 +1,28 @@
+package com.starwars.planetapi.config;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetGroupCount;
+import com.starwars.planetapi.domain.PlanetListVersion;
+import com.starwars.planetapi.domain.PlanetView;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflexão que o processamento AOT não descobre sozinho, para a imagem nativa. Entidades, repositórios e os tipos
+ * de {@code @RequestBody}/{@code ResponseEntity} dos controllers já são registrados pelo Spring.
+ */
+public class PlanetRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Construídos pelo Hibernate a partir de "select new ..." e de CriteriaBuilder.construct.
+        hints.reflection()
+            .registerType(PlanetView.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+            .registerType(PlanetListVersion.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+            .registerType(PlanetGroupCount.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        // Lidos e escritos direto pelo ObjectMapper do controller (NDJSON e listas em streaming).
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), Planet.class);
+    }
+}
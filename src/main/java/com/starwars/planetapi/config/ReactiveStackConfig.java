@@ -0,0 +1,33 @@
+package com.starwars.planetapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Infraestrutura do profile {@code reactive}.
+ * <p>
+ * Com o Tomcat no classpath (stack MVC) o Spring Boot subiria o WebFlux sobre ele; aqui o servidor é o Netty,
+ * com event loop e sem thread por requisição. E como o Spring Boot não cria o pool JDBC quando existe uma
+ * {@code ConnectionFactory} do R2DBC, ele é declarado aqui: o Flyway aplica as migrações por ele, e o JPA
+ * continua cuidando das escritas e da carga do índice de tokens.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactive")
+public class ReactiveStackConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource jdbcDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
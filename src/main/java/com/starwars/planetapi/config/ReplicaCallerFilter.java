@@ -0,0 +1,82 @@
+package com.starwars.planetapi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Associa cada requisição ao cliente que a fez, para a janela de leitura no primário do {@link ReplicaDataSource}
+ * valer só para quem escreveu. O cliente é o valor do cabeçalho {@code callerHeader} (um id de cliente repassado pelo
+ * balanceador, ou o próprio {@code Authorization}), quando vem na requisição; senão a sessão HTTP, quando existe, ou o
+ * endereço de origem. Atrás de um balanceador sem esse cabeçalho, todos os clientes teriam o endereço dele.
+ */
+public class ReplicaCallerFilter extends OncePerRequestFilter {
+
+    private final String callerHeader;
+
+    public ReplicaCallerFilter(String callerHeader) {
+        this.callerHeader = callerHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        ReplicaDataSource.setCaller(caller(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaDataSource.clearCaller();
+        }
+    }
+
+    private Object caller(HttpServletRequest request) {
+        String header = callerHeader.isEmpty() ? null : request.getHeader(callerHeader);
+        if (header != null && !header.isBlank()) {
+            // Guarda um resumo, não o valor: o cabeçalho pode ser uma credencial.
+            return "header:" + UUID.nameUUIDFromBytes(header.getBytes(StandardCharsets.UTF_8));
+        }
+        HttpSession session = request.getSession(false);
+        return session != null ? "session:" + session.getId() : "address:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Leva o chamador da requisição para a thread do processamento assíncrono ({@code Callable},
+     * {@code StreamingResponseBody} de {@code GET /planets/stream}), que roda fora do filtro.
+     */
+    static class AsyncCaller implements CallableProcessingInterceptor {
+
+        private static final String ATTRIBUTE = AsyncCaller.class.getName() + ".caller";
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            Object caller = ReplicaDataSource.caller();
+            if (caller != null) {
+                request.setAttribute(ATTRIBUTE, caller, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            Object caller = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (caller != null) {
+                ReplicaDataSource.setCaller(caller);
+            }
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            ReplicaDataSource.clearCaller();
+        }
+    }
+}
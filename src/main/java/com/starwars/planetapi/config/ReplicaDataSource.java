@@ -0,0 +1,202 @@
+package com.starwars.planetapi.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conjunto de réplicas de leitura, usado como {@code readOnlyDataSource} de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: transações {@code readOnly} pedem
+ * conexão aqui e as demais vão para o primário.
+ * <p>
+ * Cada réplica é verificada periodicamente ({@link Connection#isValid}) e a latência medida alimenta a escolha
+ * {@link Selection#LEAST_LATENCY}. Sem réplica saudável, a leitura vai para o primário. A primeira verificação roda
+ * em segundo plano, para uma réplica lenta ou fora do ar não atrasar a subida; até ela terminar as leituras vão para
+ * o primário.
+ * <p>
+ * Para o cliente ler o que acabou de gravar, as leituras de quem fez uma escrita vão para o primário até
+ * {@code readYourWritesWindow} depois do commit dela. A janela deve cobrir o atraso de replicação esperado e vale
+ * só para o chamador associado à thread por {@link #setCaller}, normalmente o cliente da requisição
+ * ({@link ReplicaCallerFilter}). Escritas sem chamador, como as do relay do outbox, não abrem janela, e só conta
+ * o commit de uma transação que não é {@code readOnly}: conexões do primário usadas em autocommit só para ler
+ * não mudam nada.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements DisposableBean {
+
+    public enum Selection { ROUND_ROBIN, LEAST_LATENCY }
+
+    private static final ThreadLocal<Object> CALLER = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long readYourWritesNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<Object, Long> lastWrites = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService healthCheck;
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, Selection selection,
+                             Duration readYourWritesWindow, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-health").daemon().factory());
+        this.healthCheck.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Associa as conexões pedidas pela thread atual a {@code caller}, até {@link #clearCaller()}.
+     */
+    public static void setCaller(Object caller) {
+        CALLER.set(caller);
+    }
+
+    public static void clearCaller() {
+        CALLER.remove();
+    }
+
+    /**
+     * O chamador associado à thread atual, ou {@code null}.
+     */
+    public static Object caller() {
+        return CALLER.get();
+    }
+
+    /**
+     * Envolve o primário para registrar o commit de cada escrita, que abre a janela de leitura no primário para o
+     * chamador atual.
+     */
+    public DataSource trackingWrites() {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return trackCommit(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return trackCommit(super.getConnection(username, password));
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (wroteRecently(CALLER.get())) {
+            return primary.getConnection();
+        }
+        Replica replica = select();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException ex) {
+            // Sai da seleção até a próxima verificação confirmar que voltou.
+            replica.healthy = false;
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("As réplicas usam as credenciais configuradas no pool; use getConnection()");
+    }
+
+    int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    void checkHealth() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= readYourWritesNanos);
+        for (Replica replica : replicas) {
+            long start = System.nanoTime();
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.healthy = connection.isValid(1);
+            } catch (SQLException ex) {
+                replica.healthy = false;
+            }
+            long elapsed = System.nanoTime() - start;
+            // Média móvel exponencial, para um pico isolado não trocar a réplica preferida.
+            replica.latencyNanos = replica.latencyNanos == 0 ? elapsed : (replica.latencyNanos * 4 + elapsed) / 5;
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        healthCheck.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Replica select() {
+        List<Replica> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (selection == Selection.LEAST_LATENCY) {
+            Replica fastest = healthy.getFirst();
+            for (Replica replica : healthy) {
+                if (replica.latencyNanos < fastest.latencyNanos) {
+                    fastest = replica;
+                }
+            }
+            return fastest;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    private boolean wroteRecently(Object caller) {
+        Long lastWrite = caller == null ? null : lastWrites.get(caller);
+        return lastWrite != null && System.nanoTime() - lastWrite < readYourWritesNanos;
+    }
+
+    private Connection trackCommit(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(connection, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                }
+                Object caller = CALLER.get();
+                if (caller != null && readYourWritesNanos > 0 && method.getName().equals("commit")
+                    && !connection.isReadOnly()) {
+                    lastWrites.put(caller, System.nanoTime());
+                }
+                return result;
+            });
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long latencyNanos;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
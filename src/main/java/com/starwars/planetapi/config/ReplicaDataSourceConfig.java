@@ -0,0 +1,93 @@
+package com.starwars.planetapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separação de leitura e escrita, ativada quando {@code planet.datasource.replica.urls} é informado.
+ * <p>
+ * O {@link LazyConnectionDataSourceProxy} só pega a conexão física no primeiro comando, quando a transação
+ * já sabe se é {@code readOnly}. Os métodos de leitura do Spring Data rodam em transações {@code readOnly}
+ * e vão para as réplicas; o resto, inclusive a inserção em lote via JDBC, vai para o primário. O
+ * {@link ReplicaCallerFilter} identifica o cliente de cada requisição para a janela de leitura no primário, também
+ * no processamento assíncrono.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "planet.datasource.replica", name = "urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                               @Value("${planet.datasource.replica.urls}") List<String> urls,
+                                               @Value("${planet.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+                                               @Value("${planet.datasource.replica.selection:ROUND_ROBIN}") ReplicaDataSource.Selection selection,
+                                               @Value("${planet.datasource.replica.read-your-writes-window:PT2S}") Duration readYourWritesWindow,
+                                               @Value("${planet.datasource.replica.health-check-interval:PT5S}") Duration healthCheckInterval) {
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(urls.get(i))
+                .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(1000);
+            // Uma réplica fora do ar não pode travar a subida nem as leituras: a verificação de saúde trata disso.
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, selection, readYourWritesWindow, healthCheckInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaDataSource.trackingWrites());
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class CallerConfig {
+
+        @Bean
+        public FilterRegistrationBean<ReplicaCallerFilter> replicaCallerFilter(
+            @Value("${planet.datasource.replica.caller-header:X-Client-Id}") String callerHeader) {
+            return new FilterRegistrationBean<>(new ReplicaCallerFilter(callerHeader));
+        }
+
+        @Bean
+        public WebMvcConfigurer replicaAsyncCaller() {
+            return new WebMvcConfigurer() {
+                @Override
+                public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                    configurer.registerCallableInterceptors(new ReplicaCallerFilter.AsyncCaller());
+                }
+            };
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.starwars.planetapi.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.starwars.planetapi.jacoco.ExcludeFromJacocoGeneratedReport;
 import jakarta.annotation.Generated;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
-@Table(name = "planets")
+@Table(name = "planets", indexes = {
+    @Index(name = "idx_planets_terrain_climate", columnList = "terrain_key, climate_key"),
+    @Index(name = "idx_planets_climate", columnList = "climate_key")
+})
 public class Planet {
 
     @Id
@@ -27,6 +33,29 @@ public class Planet {
     @Column(nullable = false)
     private String terrain;
 
+    // Colunas geradas pelo banco com o valor em minúsculas, usadas pelos filtros indexados.
+    @JsonIgnore
+    @Column(name = "climate_key", insertable = false, updatable = false,
+        columnDefinition = "varchar(255) generated always as (lower(climate))")
+    private String climateKey;
+
+    @JsonIgnore
+    @Column(name = "terrain_key", insertable = false, updatable = false,
+        columnDefinition = "varchar(255) generated always as (lower(terrain))")
+    private String terrainKey;
+
+    // Validadores das requisições condicionais (ETag e Last-Modified); os defaults cobrem inserts feitos fora do JPA.
+    @JsonIgnore
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "last_modified", nullable = false,
+        columnDefinition = "timestamp(3) default current_timestamp(3) not null")
+    private Instant lastModified;
+
     public Planet() {}
 
     public Planet(Long id, String name, String climate, String terrain) {
@@ -79,6 +108,22 @@ public class Planet {
         this.terrain = terrain;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
     @ExcludeFromJacocoGeneratedReport
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,22 @@
+package com.starwars.planetapi.domain;
+
+public record PlanetBatchResult(int index, String name, Status status, Long id, String message) {
+
+    public enum Status {
+        CREATED,
+        CONFLICT,
+        INVALID
+    }
+
+    static PlanetBatchResult created(int index, String name, Long id) {
+        return new PlanetBatchResult(index, name, Status.CREATED, id, null);
+    }
+
+    static PlanetBatchResult conflict(int index, String name) {
+        return new PlanetBatchResult(index, name, Status.CONFLICT, null, "Já existe um planeta com o nome " + name + ".");
+    }
+
+    static PlanetBatchResult invalid(int index, String name, String message) {
+        return new PlanetBatchResult(index, name, Status.INVALID, null, message);
+    }
+}
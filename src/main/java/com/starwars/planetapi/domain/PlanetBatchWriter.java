@@ -0,0 +1,76 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.outbox.PlanetOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inserção em lote via JDBC. O id IDENTITY de {@link Planet} impede o Hibernate de agrupar inserts, então
+ * o lote vai direto pelo driver (com {@code rewriteBatchedStatements=true} no MySQL) e os ids gerados
+ * são lidos depois, por nome. As criações entram no {@link PlanetOutbox} na mesma transação.
+ */
+@Repository
+public class PlanetBatchWriter {
+
+    private static final String INSERT = "INSERT INTO planets (name, climate, terrain) VALUES (:name, :climate, :terrain)";
+    private static final String SELECT_IDS = "SELECT id, name FROM planets WHERE name IN (:names)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlanetOutbox planetOutbox;
+    private final int batchSize;
+
+    public PlanetBatchWriter(NamedParameterJdbcTemplate jdbcTemplate, PlanetOutbox planetOutbox,
+                             @Value("${planet.batch.size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.planetOutbox = planetOutbox;
+        this.batchSize = batchSize;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public Set<String> findExistingNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT name FROM planets WHERE name IN (:names)", Map.of("names", names), String.class));
+    }
+
+    /**
+     * Insere o lote numa única transação e devolve os ids gerados por nome.
+     *
+     * @throws DuplicateKeyException se algum nome já tiver sido gravado por outra requisição nesse meio tempo
+     */
+    @Transactional
+    public Map<String, Long> insert(List<Planet> planets) {
+        SqlParameterSource[] rows = planets.stream()
+            .map(planet -> new MapSqlParameterSource()
+                .addValue("name", planet.getName())
+                .addValue("climate", planet.getClimate())
+                .addValue("terrain", planet.getTerrain()))
+            .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT, rows);
+
+        List<String> names = planets.stream().map(Planet::getName).toList();
+        planetOutbox.recordCreated(names);
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(SELECT_IDS, Map.of("names", names),
+            rs -> {
+                ids.put(rs.getString("name"), rs.getLong("id"));
+            });
+        return ids;
+    }
+}
@@ -0,0 +1,140 @@
+package com.starwars.planetapi.domain;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Cache read-through dos planetas, indexado por id e por nome.
+ * <p>
+ * O índice por nome guarda apenas o id do planeta e a entidade fica só no índice por id. Assim,
+ * remover um planeta exige invalidar uma única chave, e um nome que aponta para um id removido
+ * resolve para vazio na próxima leitura. Resultados vazios também são guardados, mas por menos tempo.
+ * A chave do nome é normalizada por {@link QueryBuilder#normalize}, porque a coluna {@code name} não diferencia
+ * maiúsculas: criar "Tatooine" invalida também o vazio guardado para "tatooine".
+ * <p>
+ * A carga roda fora de qualquer lock do mapa: uma {@link CompletableFuture} é registrada e só depois a
+ * consulta é feita. Assim uma virtual thread não fica presa ({@code pinned}) durante o JDBC, e quem pede a
+ * mesma chave nesse intervalo espera pela mesma carga, com o limite e as métricas do {@link PlanetSingleFlight}.
+ * <p>
+ * As estatísticas dos dois índices são publicadas no Micrometer como {@code cache.*{cache=planets.byId}} e
+ * {@code cache.*{cache=planets.byName}}.
+ */
+@Component
+public class PlanetCache implements MeterBinder {
+
+    private final AsyncCache<Long, Optional<Planet>> planetsById;
+    private final AsyncCache<String, Optional<Long>> idsByName;
+    private final PlanetSingleFlight singleFlight;
+
+    public PlanetCache(@Value("${planet.cache.maximum-size:10000}") long maximumSize,
+                       @Value("${planet.cache.ttl:PT5M}") Duration ttl,
+                       @Value("${planet.cache.negative-ttl:PT10S}") Duration negativeTtl,
+                       PlanetSingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+        this.planetsById = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new PresenceExpiry<Long, Planet>(ttl, negativeTtl))
+            .recordStats()
+            .buildAsync();
+        this.idsByName = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new PresenceExpiry<String, Long>(ttl, negativeTtl))
+            .recordStats()
+            .buildAsync();
+    }
+
+    public Optional<Planet> get(Long id, Function<Long, Optional<Planet>> loader) {
+        return load("get", planetsById, id, loader);
+    }
+
+    public Optional<Long> getIdByName(String name, Function<String, Optional<Long>> loader) {
+        // A consulta recebe o nome como veio; só a chave do cache é normalizada.
+        return load("findByName", idsByName, QueryBuilder.normalize(name), key -> loader.apply(name));
+    }
+
+    /**
+     * Deve ser chamado depois que a escrita foi confirmada no banco. Uma carga em andamento para a
+     * mesma chave sai do cache e o valor que ela trouxer só é entregue a quem já estava esperando.
+     */
+    public void invalidate(Long id, String name) {
+        if (id != null) {
+            planetsById.synchronous().invalidate(id);
+        }
+        if (name != null) {
+            idsByName.synchronous().invalidate(QueryBuilder.normalize(name));
+        }
+    }
+
+    public CacheStats statsById() {
+        return planetsById.synchronous().stats();
+    }
+
+    public CacheStats statsByName() {
+        return idsByName.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, planetsById.synchronous(), "planets.byId");
+        CaffeineCacheMetrics.monitor(registry, idsByName.synchronous(), "planets.byName");
+    }
+
+    private <K, V> V load(String operation, AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        CompletableFuture<V> current = cache.get(key, (k, executor) -> pending);
+        if (current != pending) {
+            // Só conta como espera se a carga de outra thread ainda não terminou.
+            return current.isDone() ? join(current) : singleFlight.await(operation, current);
+        }
+        try {
+            pending.complete(loader.apply(key));
+        } catch (RuntimeException ex) {
+            // Futuros que falham são descartados pelo Caffeine; a próxima leitura tenta de novo.
+            pending.completeExceptionally(ex);
+            throw ex;
+        }
+        return pending.join();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record PresenceExpiry<K, V>(Duration ttl, Duration negativeTtl) implements Expiry<K, Optional<V>> {
+
+        @Override
+        public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.exception.CursorInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco da paginação por keyset: guarda o último id entregue ao cliente.
+ */
+public class PlanetCursor {
+
+    private static final String PREFIX = "id:";
+
+    private PlanetCursor() {}
+
+    public static String encode(Long lastId) {
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new CursorInvalidoException(cursor);
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new CursorInvalidoException(cursor);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.starwars.planetapi.domain;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Total de uma listagem filtrada e quantos planetas dela têm cada token de terrain e de climate, em ordem
+ * alfabética. Um planeta com {@code "grasslands, mountains"} conta para os dois tokens.
+ */
+public record PlanetFacets(long count, Map<String, Long> terrain, Map<String, Long> climate) {
+
+    /**
+     * Soma as contagens por par de valores nos tokens de cada um; o custo depende dos pares distintos, não dos
+     * planetas.
+     */
+    public static PlanetFacets of(List<PlanetGroupCount> groups) {
+        long count = 0;
+        Map<String, Long> terrain = new TreeMap<>();
+        Map<String, Long> climate = new TreeMap<>();
+        for (PlanetGroupCount group : groups) {
+            count += group.count();
+            PlanetTokens.parse(group.terrain()).forEach(token -> terrain.merge(token, group.count(), Long::sum));
+            PlanetTokens.parse(group.climate()).forEach(token -> climate.merge(token, group.count(), Long::sum));
+        }
+        return new PlanetFacets(count, Collections.unmodifiableMap(terrain), Collections.unmodifiableMap(climate));
+    }
+}
@@ -0,0 +1,29 @@
+package com.starwars.planetapi.domain;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtro por igualdade, sem diferenciar maiúsculas, sobre as colunas normalizadas de {@link Planet}.
+ * Só os filtros informados viram predicado, para o banco poder usar os índices de terrain/climate.
+ */
+record PlanetFilter(String terrainKey, String climateKey) implements Specification<Planet> {
+
+    @Override
+    public Predicate toPredicate(Root<Planet> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        List<Predicate> predicates = new ArrayList<>(2);
+        if (terrainKey != null) {
+            predicates.add(criteriaBuilder.equal(root.get("terrainKey"), terrainKey));
+        }
+        if (climateKey != null) {
+            predicates.add(criteriaBuilder.equal(root.get("climateKey"), climateKey));
+        }
+        return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+    }
+}
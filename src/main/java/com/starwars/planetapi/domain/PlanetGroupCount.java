@@ -0,0 +1,7 @@
+package com.starwars.planetapi.domain;
+
+/**
+ * Quantidade de planetas com um mesmo par de valores normalizados de terrain e climate, obtida por agregação.
+ */
+public record PlanetGroupCount(String terrain, String climate, long count) {
+}
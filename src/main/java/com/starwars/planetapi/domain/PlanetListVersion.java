@@ -0,0 +1,14 @@
+package com.starwars.planetapi.domain;
+
+import java.time.Instant;
+
+/**
+ * Versão de uma listagem filtrada, obtida por agregação sem ler as linhas. Inserções mudam o maior id,
+ * alterações mudam a última modificação e remoções mudam a contagem.
+ */
+public record PlanetListVersion(long count, Long maxId, Instant lastModified) {
+
+    public String tag() {
+        return count + "-" + (maxId == null ? 0 : maxId) + "-" + (lastModified == null ? 0 : lastModified.toEpochMilli());
+    }
+}
@@ -0,0 +1,76 @@
+package com.starwars.planetapi.domain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Métricas do {@link PlanetService}: um timer por operação ({@code planet.service}), contadores de conflito,
+ * de busca sem resultado e de remoção sem registro, e a distribuição do tamanho das listas.
+ * Percentis e histogramas são ligados por propriedade ({@code management.metrics.distribution.*}).
+ */
+@Component
+public class PlanetMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> notFound = new ConcurrentHashMap<>();
+    private final Counter conflicts;
+    private final Counter deleteMisses;
+    private final DistributionSummary listSize;
+
+    public PlanetMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.conflicts = Counter.builder("planet.service.conflicts")
+            .description("Criações recusadas por nome já existente")
+            .register(registry);
+        this.deleteMisses = Counter.builder("planet.service.delete.misses")
+            .description("Remoções de ids que não existiam")
+            .register(registry);
+        this.listSize = DistributionSummary.builder("planet.service.list.size")
+            .description("Quantidade de planetas devolvidos por listagem")
+            .baseUnit("planets")
+            .register(registry);
+    }
+
+    public <T> T time(String operation, Supplier<T> call) {
+        return timers.computeIfAbsent(operation, key -> Timer.builder("planet.service")
+                .description("Tempo de cada operação do PlanetService")
+                .tag("operation", key)
+                .register(registry))
+            .record(call);
+    }
+
+    public void time(String operation, Runnable call) {
+        time(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public void conflict() {
+        conflicts.increment();
+    }
+
+    public void notFound(String operation) {
+        notFound.computeIfAbsent(operation, key -> Counter.builder("planet.service.not.found")
+                .description("Buscas que não encontraram o planeta")
+                .tag("operation", key)
+                .register(registry))
+            .increment();
+    }
+
+    public void deleteMiss() {
+        deleteMisses.increment();
+    }
+
+    public void listSize(int size) {
+        listSize.record(size);
+    }
+}
@@ -0,0 +1,561 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória dos nomes para busca por prefixo e aproximada (distância de edição até {@value #MAX_DISTANCE}).
+ * É carregado na subida da aplicação e mantido pelos eventos de criação e remoção de planetas, aplicados só depois
+ * do commit. Eventos que chegam durante a carga são guardados e reaplicados, na ordem, sobre o conteúdo carregado.
+ * <p>
+ * As chaves ficam ordenadas num único {@code char[]} ({@link Sorted}), percorrido como uma trie implícita: todas
+ * as chaves de um intervalo compartilham o prefixo da profundidade atual, e os filhos são os trechos com o mesmo
+ * caractere seguinte. A busca aproximada calcula uma linha da matriz de Levenshtein por nó e abandona o ramo
+ * quando o mínimo da linha passa da distância máxima.
+ * <p>
+ * Criações entram num conjunto ordenado à parte e remoções viram marcas; com {@value #COMPACT_THRESHOLD}
+ * alterações pendentes os arrays são refeitos, para cada criação não custar uma cópia de tudo.
+ */
+@Component
+public class PlanetNameIndex {
+
+    public static final int MAX_DISTANCE = 2;
+    static final int COMPACT_THRESHOLD = 4096;
+    private static final int WARM_UP_PAGE_SIZE = 1000;
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingLong(Entry::id);
+
+    private final PlanetRepository planetRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Sorted base = Sorted.of(List.of());
+    private final TreeSet<Entry> added = new TreeSet<>(ORDER);
+    private final Roaring64Bitmap removed = new Roaring64Bitmap();
+    // Não nulo só durante a carga; protegido pela trava de escrita.
+    private List<Runnable> warmUpChanges;
+
+    public PlanetNameIndex(PlanetRepository planetRepository) {
+        this.planetRepository = planetRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            warmUpChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Planet> planets = new ArrayList<>();
+        try {
+            long lastId = 0L;
+            List<Planet> page;
+            do {
+                page = planetRepository.findPage(lastId, null, null, Limit.of(WARM_UP_PAGE_SIZE));
+                planets.addAll(page);
+                lastId = page.isEmpty() ? lastId : page.getLast().getId();
+            } while (page.size() == WARM_UP_PAGE_SIZE);
+        } finally {
+            // replaceAll descarta o que foi aplicado antes dele, então as alterações da carga vêm depois.
+            lock.writeLock().lock();
+            try {
+                replaceAll(planets);
+                List<Runnable> changes = warmUpChanges;
+                warmUpChanges = null;
+                changes.forEach(Runnable::run);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(PlanetCreatedEvent event) {
+        apply(() -> add(event.planet()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUpdated(PlanetUpdatedEvent event) {
+        apply(() -> add(event.planet()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRemoved(PlanetRemovedEvent event) {
+        apply(() -> remove(event.id()));
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (warmUpChanges != null) {
+                warmUpChanges.add(change);
+            } else {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Troca todo o conteúdo do índice pelos planetas informados.
+     */
+    public void replaceAll(Collection<Planet> planets) {
+        Sorted sorted = Sorted.of(planets.stream().map(Entry::of).sorted(ORDER).toList());
+        lock.writeLock().lock();
+        try {
+            base = sorted;
+            added.clear();
+            removed.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Planet planet) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(planet.getId());
+            added.add(Entry.of(planet));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Até {@code limit} planetas cujo nome é igual à consulta, começa com ela ou fica a poucas edições dela, nessa
+     * ordem. Prefixos vêm em ordem alfabética e aproximados por distância e depois nome. A distância aceita cresce
+     * com o tamanho da consulta: nenhuma até 2 caracteres, 1 até 5 e {@value #MAX_DISTANCE} a partir de 6.
+     */
+    public List<PlanetNameMatch> search(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, PlanetNameMatch> found = new LinkedHashMap<>();
+            for (Entry entry : prefix(key, limit)) {
+                PlanetNameMatch.Match match = entry.key().equals(key) ? PlanetNameMatch.Match.EXACT : PlanetNameMatch.Match.PREFIX;
+                found.put(entry.id(), new PlanetNameMatch(entry.id(), entry.name(), match, 0));
+            }
+            // Cada distância só é tentada se as menores não completaram o limite; a de 1 poda bem mais cedo.
+            for (int distance = 1; distance <= maxDistance(key.length()) && found.size() < limit; distance++) {
+                List<Candidate> candidates = new ArrayList<>();
+                new Walk(base, key, distance, candidates).run();
+                fuzzyInAdded(key, distance, candidates);
+                candidates.sort(Comparator.comparingInt(Candidate::distance).thenComparing(Candidate::entry, ORDER));
+                for (Candidate candidate : candidates) {
+                    if (found.size() == limit) {
+                        break;
+                    }
+                    Entry entry = candidate.entry();
+                    found.putIfAbsent(entry.id(), new PlanetNameMatch(entry.id(), entry.name(), PlanetNameMatch.Match.FUZZY, candidate.distance()));
+                }
+            }
+            return List.copyOf(found.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static int maxDistance(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : MAX_DISTANCE;
+    }
+
+    private List<Entry> prefix(String key, int limit) {
+        List<Entry> matches = new ArrayList<>(limit);
+        for (int i = base.lowerBound(key); i < base.size() && matches.size() < limit && base.startsWith(i, key); i++) {
+            if (!removed.contains(base.ids[i])) {
+                matches.add(base.entry(i));
+            }
+        }
+        int fromBase = matches.size();
+        for (Entry entry : added.tailSet(new Entry(key, Long.MIN_VALUE, null))) {
+            if (matches.size() == fromBase + limit || !entry.key().startsWith(key)) {
+                break;
+            }
+            matches.add(entry);
+        }
+        if (matches.size() > fromBase) {
+            matches.sort(ORDER);
+        }
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+
+    private void fuzzyInAdded(String key, int maxDistance, List<Candidate> out) {
+        for (Entry entry : added) {
+            int distance = distance(key, entry.key(), maxDistance);
+            if (distance <= maxDistance) {
+                out.add(new Candidate(entry, distance));
+            }
+        }
+    }
+
+    /**
+     * Distância de Levenshtein entre {@code a} e {@code b}, ou {@code maxDistance + 1} assim que passar do limite.
+     */
+    static int distance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        Arrays.setAll(previous, j -> j);
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int min = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(current[j - 1], previous[j]) + 1);
+                min = Math.min(min, current[j]);
+            }
+            if (min > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private void removeUnlocked(Long id) {
+        added.removeIf(entry -> entry.id() == id);
+        if (base.idSet.contains(id)) {
+            removed.addLong(id);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (added.size() + removed.getLongCardinality() < COMPACT_THRESHOLD) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(base.size() + added.size());
+        Iterator<Entry> pending = added.iterator();
+        Entry next = pending.hasNext() ? pending.next() : null;
+        for (int i = 0; i < base.size(); i++) {
+            if (removed.contains(base.ids[i])) {
+                continue;
+            }
+            Entry entry = base.entry(i);
+            while (next != null && ORDER.compare(next, entry) < 0) {
+                entries.add(next);
+                next = pending.hasNext() ? pending.next() : null;
+            }
+            entries.add(entry);
+        }
+        while (next != null) {
+            entries.add(next);
+            next = pending.hasNext() ? pending.next() : null;
+        }
+        base = Sorted.of(entries);
+        added.clear();
+        removed.clear();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : QueryBuilder.normalize(value.strip());
+    }
+
+    private record Entry(String key, long id, String name) {
+
+        static Entry of(Planet planet) {
+            return new Entry(normalize(planet.getName()), planet.getId(), planet.getName());
+        }
+    }
+
+    private record Candidate(Entry entry, int distance) {
+    }
+
+    /**
+     * Entradas ordenadas em colunas: as chaves concatenadas num {@code char[]} com os deslocamentos ao lado, para
+     * a busca binária ler caracteres sem seguir uma referência por entrada. Os nós da trie implícita com mais de
+     * {@value #EXPLICIT_NODE_SIZE} entradas, que são poucos e ficam perto da raiz, têm os filhos calculados na
+     * construção; nos demais os filhos saem de buscas binárias num trecho pequeno do array.
+     */
+    private static final class Sorted {
+
+        static final int EXPLICIT_NODE_SIZE = 32;
+
+        final char[] chars;
+        final int[] offsets;
+        final long[] ids;
+        final String[] names;
+        final Roaring64Bitmap idSet = new Roaring64Bitmap();
+        final int longest;
+        // Filhos do nó explícito n: posições [firstChild[n], firstChild[n + 1]) das colunas child*.
+        private int[] firstChild = new int[16];
+        private char[] childChar = new char[64];
+        private int[] childLo = new int[64];
+        private int[] childHi = new int[64];
+        private int[] childNode = new int[64];
+        private int nodes;
+        private int children;
+        final int root;
+
+        private Sorted(char[] chars, int[] offsets, long[] ids, String[] names, int longest) {
+            this.chars = chars;
+            this.offsets = offsets;
+            this.ids = ids;
+            this.names = names;
+            this.longest = longest;
+            for (long id : ids) {
+                idSet.addLong(id);
+            }
+            this.root = ids.length > EXPLICIT_NODE_SIZE ? node(0, ids.length, 0) : -1;
+        }
+
+        static Sorted of(List<Entry> entries) {
+            int[] offsets = new int[entries.size() + 1];
+            long[] ids = new long[entries.size()];
+            String[] names = new String[entries.size()];
+            int longest = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                offsets[i + 1] = offsets[i] + entry.key().length();
+                ids[i] = entry.id();
+                names[i] = entry.name();
+                longest = Math.max(longest, entry.key().length());
+            }
+            char[] chars = new char[offsets[entries.size()]];
+            for (int i = 0; i < entries.size(); i++) {
+                entries.get(i).key().getChars(0, offsets[i + 1] - offsets[i], chars, offsets[i]);
+            }
+            return new Sorted(chars, offsets, ids, names, longest);
+        }
+
+        /**
+         * Registra o nó explícito de {@code [lo, hi)} na profundidade {@code depth} e, recursivamente, os filhos
+         * grandes o bastante. Os filhos de um nó ocupam posições contíguas.
+         */
+        private int node(int lo, int hi, int depth) {
+            int node = nodes++;
+            firstChild = ensure(firstChild, node + 2);
+            firstChild[node] = children;
+            while (lo < hi && length(lo) == depth) {
+                lo++;
+            }
+            while (lo < hi) {
+                char c = charAt(lo, depth);
+                int end = charAt(hi - 1, depth) == c ? hi : endOfRun(lo + 1, hi - 1, depth, c);
+                int child = children++;
+                childChar = children > childChar.length ? Arrays.copyOf(childChar, children * 2) : childChar;
+                childLo = ensure(childLo, children);
+                childHi = ensure(childHi, children);
+                childNode = ensure(childNode, children);
+                childChar[child] = c;
+                childLo[child] = lo;
+                childHi[child] = end;
+                lo = end;
+            }
+            firstChild[node + 1] = children;
+            for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+                // A recursão pode trocar os arrays, então o índice só é gravado depois dela.
+                int explicit = childHi[child] - childLo[child] > EXPLICIT_NODE_SIZE ? node(childLo[child], childHi[child], depth + 1) : -1;
+                childNode[child] = explicit;
+            }
+            return node;
+        }
+
+        private static int[] ensure(int[] array, int size) {
+            return size > array.length ? Arrays.copyOf(array, Math.max(size, array.length * 2)) : array;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int length(int i) {
+            return offsets[i + 1] - offsets[i];
+        }
+
+        char charAt(int i, int depth) {
+            return chars[offsets[i] + depth];
+        }
+
+        Entry entry(int i) {
+            return new Entry(new String(chars, offsets[i], length(i)), ids[i], names[i]);
+        }
+
+        boolean startsWith(int i, String key) {
+            return length(i) >= key.length() && Arrays.equals(chars, offsets[i], offsets[i] + key.length(), key.toCharArray(), 0, key.length());
+        }
+
+        int lowerBound(String key) {
+            char[] target = key.toCharArray();
+            int lo = 0;
+            int hi = size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Arrays.compare(chars, offsets[mid], offsets[mid + 1], target, 0, target.length) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Primeiro índice de {@code [lo, hi)} cujo caractere na posição {@code depth} é maior que {@code c}; as
+         * entradas do intervalo têm todas mais de {@code depth} caracteres.
+         */
+        int endOfRun(int lo, int hi, int depth, char c) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (charAt(mid, depth) > c) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Posição do filho {@code c} do nó explícito {@code node}, ou -1.
+         */
+        int child(int node, char c) {
+            int position = Arrays.binarySearch(childChar, firstChild[node], firstChild[node + 1], c);
+            return position < 0 ? -1 : position;
+        }
+    }
+
+    /**
+     * Percurso da busca aproximada sobre um {@link Sorted}. As linhas da matriz são reaproveitadas por
+     * profundidade, então a busca só aloca os candidatos.
+     */
+    private final class Walk {
+
+        private final Sorted sorted;
+        private final String key;
+        private final int maxDistance;
+        private final List<Candidate> out;
+        private final int[][] rows;
+
+        Walk(Sorted sorted, String key, int maxDistance, List<Candidate> out) {
+            this.sorted = sorted;
+            this.key = key;
+            this.maxDistance = maxDistance;
+            this.out = out;
+            this.rows = new int[sorted.longest + 2][key.length() + 1];
+        }
+
+        void run() {
+            Arrays.setAll(rows[0], i -> i);
+            visit(sorted.root, 0, sorted.size(), 0, 0);
+        }
+
+        /**
+         * Visita o nó formado por {@code [lo, hi)}, cujas chaves compartilham os primeiros {@code depth}
+         * caracteres; {@code rows[depth]} é a linha desse prefixo contra a consulta e {@code min} o seu mínimo.
+         * {@code node} é o nó explícito correspondente, ou -1.
+         */
+        private void visit(int node, int lo, int hi, int depth, int min) {
+            int[] row = rows[depth];
+            int m = key.length();
+            // Chaves que terminam nesta profundidade ordenam antes das mais longas com o mesmo prefixo.
+            while (lo < hi && sorted.length(lo) == depth) {
+                if (row[m] <= maxDistance && !removed.contains(sorted.ids[lo])) {
+                    out.add(new Candidate(sorted.entry(lo), row[m]));
+                }
+                lo++;
+            }
+            if (lo == hi) {
+                return;
+            }
+            if (min < maxDistance) {
+                if (node >= 0) {
+                    for (int child = sorted.firstChild[node]; child < sorted.firstChild[node + 1]; child++) {
+                        descend(sorted.childNode[child], sorted.childLo[child], sorted.childHi[child], depth, sorted.childChar[child]);
+                    }
+                    return;
+                }
+                while (lo < hi) {
+                    char c = sorted.charAt(lo, depth);
+                    int end = sorted.charAt(hi - 1, depth) == c ? hi : sorted.endOfRun(lo + 1, hi - 1, depth, c);
+                    descend(-1, lo, end, depth, c);
+                    lo = end;
+                }
+                return;
+            }
+            // Com o mínimo no limite, só seguem caracteres iguais ao da consulta numa coluna que está no limite.
+            for (int i = 1; i <= m; i++) {
+                char c = key.charAt(i - 1);
+                if (row[i - 1] != maxDistance || repeats(row, c, i - 1)) {
+                    continue;
+                }
+                if (node >= 0) {
+                    int child = sorted.child(node, c);
+                    if (child >= 0) {
+                        descend(sorted.childNode[child], sorted.childLo[child], sorted.childHi[child], depth, c);
+                    }
+                    continue;
+                }
+                int start = sorted.endOfRun(lo, hi, depth, (char) (c - 1));
+                if (start < hi && sorted.charAt(start, depth) == c) {
+                    descend(-1, start, sorted.endOfRun(start, hi, depth, c), depth, c);
+                }
+            }
+        }
+
+        /**
+         * Se {@code c} já apareceu antes da coluna {@code column} também no limite, o filho já foi visitado.
+         */
+        private boolean repeats(int[] row, char c, int column) {
+            for (int j = 0; j < column; j++) {
+                if (key.charAt(j) == c && row[j] == maxDistance) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void descend(int node, int lo, int hi, int depth, char c) {
+            int[] row = rows[depth];
+            int[] next = rows[depth + 1];
+            next[0] = row[0] + 1;
+            int min = next[0];
+            for (int i = 1; i <= key.length(); i++) {
+                int substitution = row[i - 1] + (key.charAt(i - 1) == c ? 0 : 1);
+                next[i] = Math.min(substitution, Math.min(next[i - 1], row[i]) + 1);
+                min = Math.min(min, next[i]);
+            }
+            if (min <= maxDistance) {
+                visit(node, lo, hi, depth + 1, min);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.starwars.planetapi.domain;
+
+/**
+ * Resultado da busca por nome. {@code distance} é a distância de edição até o nome inteiro nos resultados
+ * {@link Match#FUZZY} e zero nos demais.
+ */
+public record PlanetNameMatch(Long id, String name, Match match, int distance) {
+
+    public enum Match { EXACT, PREFIX, FUZZY }
+}
@@ -0,0 +1,6 @@
+package com.starwars.planetapi.domain;
+
+import java.util.List;
+
+public record PlanetPage(List<Planet> items, String next) {
+}
@@ -1,16 +1,99 @@
 package com.starwars.planetapi.domain;
 
-import org.springframework.data.domain.Example;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.repository.query.QueryByExampleExecutor;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PlanetRepository extends JpaRepository<Planet, Long>, QueryByExampleExecutor<Planet> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface PlanetRepository extends JpaRepository<Planet, Long>, JpaSpecificationExecutor<Planet>, PlanetViewRepository,
+    PlanetWriteRepository {
 
     Optional<Planet> findByName(String name);
 
     @Override
-    <S extends Planet> List<S> findAll(Example<S> example);
-}
\ No newline at end of file
+    List<Planet> findAll(Specification<Planet> spec);
+
+    @Query("""
+        select p from Planet p
+        where p.id > :lastId
+          and (:terrain is null or p.terrainKey = :terrain)
+          and (:climate is null or p.climateKey = :climate)
+        order by p.id""")
+    List<Planet> findPage(@Param("lastId") Long lastId, @Param("terrain") String terrain, @Param("climate") String climate, Limit limit);
+
+    @Query("""
+        select new com.starwars.planetapi.domain.PlanetListVersion(count(p), max(p.id), max(p.lastModified))
+        from Planet p
+        where (:terrain is null or p.terrainKey = :terrain)
+          and (:climate is null or p.climateKey = :climate)""")
+    PlanetListVersion findListVersion(@Param("terrain") String terrain, @Param("climate") String climate);
+
+    @Query("""
+        select count(p) from Planet p
+        where (:terrain is null or p.terrainKey = :terrain)
+          and (:climate is null or p.climateKey = :climate)""")
+    long countByFilter(@Param("terrain") String terrain, @Param("climate") String climate);
+
+    /**
+     * Contagem por par de terrain e climate normalizados; as colunas agrupadas são as do índice
+     * {@code idx_planets_terrain_climate}, então o banco pode responder só pelo índice. Um item por par existente.
+     */
+    @Query("""
+        select new com.starwars.planetapi.domain.PlanetGroupCount(p.terrainKey, p.climateKey, count(p))
+        from Planet p
+        where (:terrain is null or p.terrainKey = :terrain)
+          and (:climate is null or p.climateKey = :climate)
+        group by p.terrainKey, p.climateKey""")
+    List<PlanetGroupCount> countByTerrainAndClimate(@Param("terrain") String terrain, @Param("climate") String climate);
+
+    /**
+     * Remove direto, num único comando e sem carregar a entidade; devolve a quantidade de linhas removidas.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Planet p where p.id = :id")
+    int deleteRow(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Planet p where p.id in :ids")
+    int deleteRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Troca climate e terrain do planeta com esse nome só se algum deles mudar, avançando versão e data de
+     * modificação; devolve 0 se o nome não existir ou os dados forem os mesmos.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update Planet p
+        set p.climate = :climate, p.terrain = :terrain, p.version = p.version + 1, p.lastModified = instant
+        where p.name = :name
+          and (p.climate <> :climate or p.terrain <> :terrain)""")
+    int updateIfChanged(@Param("name") String name, @Param("climate") String climate, @Param("terrain") String terrain);
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select p from Planet p
+        where (:terrain is null or p.terrainKey = :terrain)
+          and (:climate is null or p.climateKey = :climate)
+        order by p.id""")
+    Stream<Planet> streamByFilter(@Param("terrain") String terrain, @Param("climate") String climate);
+}
@@ -1,40 +1,490 @@
 package com.starwars.planetapi.domain;
 
-import aj.org.objectweb.asm.commons.Remapper;
-import org.hibernate.boot.model.internal.QueryBinder;
-import org.springframework.data.domain.Example;
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import com.starwars.planetapi.domain.exception.PlanetJaExisteException;
+import com.starwars.planetapi.domain.exception.PlanetNaoEncontradaException;
+import com.starwars.planetapi.domain.exception.TokenAusenteException;
+import com.starwars.planetapi.domain.outbox.PlanetChange;
+import com.starwars.planetapi.domain.outbox.PlanetChangePage;
+import com.starwars.planetapi.domain.outbox.PlanetOutbox;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PlanetService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int DEFAULT_SEARCH_SIZE = 10;
+    public static final int MAX_SEARCH_SIZE = 100;
+    // Maior lista do IN de cada consulta de findByTokens, longe do limite de parâmetros e do max_allowed_packet.
+    static final int MAX_IDS_PER_QUERY = 1000;
+
     private final PlanetRepository planetRepository;
+    private final EntityManager entityManager;
+    private final PlanetCache planetCache;
+    private final PlanetTokenIndex planetTokenIndex;
+    private final PlanetNameIndex planetNameIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlanetBatchWriter planetBatchWriter;
+    private final Validator validator;
+    private final PlanetMetrics planetMetrics;
+    private final PlanetOutbox planetOutbox;
+    private final PlanetSingleFlight singleFlight;
+    private final PlanetSnapshot planetSnapshot;
 
-    public PlanetService(PlanetRepository planetRepository) {
+    public PlanetService(PlanetRepository planetRepository, EntityManager entityManager, PlanetCache planetCache,
+                         PlanetTokenIndex planetTokenIndex, PlanetNameIndex planetNameIndex, ApplicationEventPublisher eventPublisher,
+                         PlanetBatchWriter planetBatchWriter, Validator validator, PlanetMetrics planetMetrics,
+                         PlanetOutbox planetOutbox, PlanetSingleFlight singleFlight, PlanetSnapshot planetSnapshot) {
         this.planetRepository = planetRepository;
+        this.entityManager = entityManager;
+        this.planetCache = planetCache;
+        this.planetTokenIndex = planetTokenIndex;
+        this.planetNameIndex = planetNameIndex;
+        this.eventPublisher = eventPublisher;
+        this.planetBatchWriter = planetBatchWriter;
+        this.validator = validator;
+        this.planetMetrics = planetMetrics;
+        this.planetOutbox = planetOutbox;
+        this.singleFlight = singleFlight;
+        this.planetSnapshot = planetSnapshot;
     }
 
+    /**
+     * Grava o planeta e a alteração no outbox na mesma transação. Nome repetido, inclusive o gravado ao mesmo tempo
+     * por outra transação, é detectado pela contagem de linhas do {@code INSERT IGNORE}.
+     *
+     * @throws PlanetJaExisteException se o nome já existir
+     */
+    @Transactional(noRollbackFor = PlanetJaExisteException.class)
     public Planet create(Planet planet) {
-        return planetRepository.save(planet);
+        // O tempo cobre a operação inteira: validação, insert, outbox e eventos.
+        return planetMetrics.time("create", () -> createRow(planet));
+    }
+
+    private Planet createRow(Planet planet) {
+        validate(planet);
+        Optional<Planet> inserted;
+        try {
+            inserted = planetRepository.insertIfAbsent(planet);
+        } catch (DataIntegrityViolationException ex) {
+            planetMetrics.conflict();
+            throw ex;
+        }
+        if (inserted.isEmpty()) {
+            planetMetrics.conflict();
+            throw new PlanetJaExisteException(planet.getName());
+        }
+        Planet created = inserted.get();
+        planetOutbox.recordCreated(created);
+        afterCreate(created);
+        return created;
+    }
+
+    /**
+     * Cria o planeta com esse nome ou troca climate e terrain do existente. Repetir a mesma chamada não altera
+     * nada: dados iguais não avançam a versão nem geram alteração no outbox. O nome vem de {@code name}, não do corpo.
+     */
+    @Transactional
+    public PlanetUpsert upsert(String name, Planet planet) {
+        Planet target = new Planet(name, planet.getClimate(), planet.getTerrain());
+        validate(target);
+        return planetMetrics.time("upsert", () -> upsertRow(target));
+    }
+
+    private PlanetUpsert upsertRow(Planet planet) {
+        if (planetRepository.updateIfChanged(planet.getName(), planet.getClimate(), planet.getTerrain()) > 0) {
+            return updated(planet.getName());
+        }
+        Optional<Planet> created = planetRepository.insertIfAbsent(planet);
+        if (created.isPresent()) {
+            planetOutbox.recordCreated(created.get());
+            afterCreate(created.get());
+            return new PlanetUpsert(created.get(), PlanetUpsert.Status.CREATED);
+        }
+        // O nome existe: ou os dados já eram esses, ou outra requisição acabou de criá-lo com outros dados.
+        if (planetRepository.updateIfChanged(planet.getName(), planet.getClimate(), planet.getTerrain()) > 0) {
+            return updated(planet.getName());
+        }
+        return new PlanetUpsert(planetRepository.findByName(planet.getName()).orElseThrow(), PlanetUpsert.Status.UNCHANGED);
     }
 
+    private PlanetUpsert updated(String name) {
+        Planet planet = planetRepository.findByName(name).orElseThrow();
+        planetOutbox.recordUpdated(planet);
+        afterCommit(() -> {
+            planetCache.invalidate(planet.getId(), planet.getName());
+            singleFlight.forget("list");
+        });
+        eventPublisher.publishEvent(new PlanetUpdatedEvent(planet));
+        return new PlanetUpsert(planet, PlanetUpsert.Status.UPDATED);
+    }
+
+    /**
+     * Cria os planetas em lotes JDBC de {@code planet.batch.size} linhas, devolvendo um resultado por linha
+     * na ordem de entrada. Linhas inválidas e nomes repetidos (na entrada ou no banco) não interrompem o lote.
+     */
+    public List<PlanetBatchResult> createAll(Iterator<Planet> planets) {
+        return planetMetrics.time("createAll", () -> createInChunks(planets));
+    }
+
+    private List<PlanetBatchResult> createInChunks(Iterator<Planet> planets) {
+        List<PlanetBatchResult> results = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        Map<Integer, Planet> chunk = new LinkedHashMap<>();
+        int index = 0;
+        while (planets.hasNext()) {
+            Planet planet = planets.next();
+            Set<ConstraintViolation<Planet>> violations = validator.validate(planet);
+            if (!violations.isEmpty()) {
+                results.add(PlanetBatchResult.invalid(index, planet.getName(), describe(violations)));
+            } else if (!names.add(planet.getName())) {
+                results.add(PlanetBatchResult.conflict(index, planet.getName()));
+            } else {
+                chunk.put(index, planet);
+                if (chunk.size() == planetBatchWriter.batchSize()) {
+                    results.addAll(insertChunk(chunk));
+                    chunk.clear();
+                }
+            }
+            index++;
+        }
+        results.addAll(insertChunk(chunk));
+        results.sort(Comparator.comparingInt(PlanetBatchResult::index));
+        return results;
+    }
+
+    /**
+     * Com o {@link PlanetSnapshot} carregado, {@code get}, {@code findByName}, {@code list} e {@code listVersion}
+     * respondem da memória, sem consulta nem cache.
+     */
     public Optional<Planet> get(Long id) {
-        return planetRepository.findById(id);
+        return found("get", planetMetrics.time("get", () -> planetSnapshot.isReady() ? planetSnapshot.get(id) : cachedGet(id)));
     }
 
     public Optional<Planet> findByName(String name) {
-        return planetRepository.findByName(name);
+        return found("findByName", planetMetrics.time("findByName", () -> {
+            if (planetSnapshot.isReady()) {
+                return planetSnapshot.findByName(name);
+            }
+            // Na carga o planeta já veio do banco; só o id vai para o cache de nomes.
+            AtomicReference<Planet> loaded = new AtomicReference<>();
+            Optional<Long> id = planetCache.getIdByName(name, key -> planetRepository.findByName(key)
+                .map(planet -> {
+                    loaded.set(planet);
+                    return planet.getId();
+                }));
+            return loaded.get() != null ? Optional.of(loaded.get()) : id.flatMap(this::cachedGet);
+        }));
+    }
+
+    public List<PlanetView> list(String terrain, String climate) {
+        return list(terrain, climate, null);
+    }
+
+    /**
+     * Lista projetada em {@link PlanetView}, lendo só as colunas de {@code fields} (todas se nulo ou vazio).
+     *
+     * @throws com.starwars.planetapi.domain.exception.CampoInvalidoException se algum campo não existir
+     */
+    public List<PlanetView> list(String terrain, String climate, Collection<String> fields) {
+        Set<String> selected = PlanetView.select(fields);
+        if (planetSnapshot.isReady()) {
+            List<PlanetView> planets = planetMetrics.time("list", () -> planetSnapshot.list(terrain, climate, selected));
+            planetMetrics.listSize(planets.size());
+            return planets;
+        }
+        Specification<Planet> query = QueryBuilder.makeQuery(new Planet(terrain, climate));
+        // Listagens iguais feitas ao mesmo tempo dividem uma consulta e recebem a mesma lista, só para leitura.
+        ListKey key = new ListKey(QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate), selected);
+        List<PlanetView> planets = planetMetrics.time("list",
+            () -> singleFlight.run("list", key, () -> Collections.unmodifiableList(planetRepository.findViews(query, selected))));
+        planetMetrics.listSize(planets.size());
+        return planets;
+    }
+
+    /**
+     * Versão da listagem com os mesmos filtros de {@link #list}, para responder requisições condicionais
+     * sem buscar as linhas.
+     */
+    public PlanetListVersion listVersion(String terrain, String climate) {
+        return planetMetrics.time("listVersion", () -> planetSnapshot.isReady()
+            ? planetSnapshot.listVersion(terrain, climate)
+            : planetRepository.findListVersion(QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate)));
+    }
+
+    /**
+     * Quantidade de planetas da listagem com os filtros de {@link #list}, por agregação e sem buscar as linhas.
+     */
+    public long count(String terrain, String climate) {
+        return planetMetrics.time("count", () -> planetSnapshot.isReady()
+            ? planetSnapshot.count(terrain, climate)
+            : planetRepository.countByFilter(QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate)));
+    }
+
+    /**
+     * Contagens por token de terrain e climate da listagem com os filtros de {@link #list}. O banco agrupa por
+     * par de valores (ou o snapshot devolve o tamanho de cada lista) e só os pares distintos são quebrados em tokens.
+     */
+    public PlanetFacets facets(String terrain, String climate) {
+        return planetMetrics.time("facets", () -> PlanetFacets.of(planetSnapshot.isReady()
+            ? planetSnapshot.countByTerrainAndClimate(terrain, climate)
+            : planetRepository.countByTerrainAndClimate(QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate))));
+    }
+
+    /**
+     * Filtra pelos tokens de terrain/climate (ex.: {@code "mountains,jungle"}) usando o índice invertido,
+     * em vez da igualdade com o valor inteiro feita por {@link #list(String, String)}. Os planetas são lidos em
+     * consultas de até {@value #MAX_IDS_PER_QUERY} ids, na ordem dos ids.
+     *
+     * @throws TokenAusenteException se nem terrain nem climate tiverem token: a tabela inteira vem de {@code list}
+     */
+    public List<Planet> listByTokens(String terrain, String climate, TokenMatch match) {
+        Set<String> terrains = PlanetTokens.parse(terrain);
+        Set<String> climates = PlanetTokens.parse(climate);
+        if (terrains.isEmpty() && climates.isEmpty()) {
+            throw new TokenAusenteException();
+        }
+        return planetMetrics.time("listByTokens", () -> findByTokens(terrains, climates, match));
+    }
+
+    private List<Planet> findByTokens(Set<String> terrains, Set<String> climates, TokenMatch match) {
+        Roaring64Bitmap ids = planetTokenIndex.match(terrains, climates, match);
+        List<Planet> planets = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(MAX_IDS_PER_QUERY);
+        LongIterator iterator = ids.getLongIterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == MAX_IDS_PER_QUERY || !iterator.hasNext()) {
+                // O iterador anda em ordem crescente, então basta ordenar dentro de cada consulta.
+                planetRepository.findAllById(chunk).stream()
+                    .sorted(Comparator.comparing(Planet::getId))
+                    .forEach(planets::add);
+                chunk = new ArrayList<>(MAX_IDS_PER_QUERY);
+            }
+        }
+        return planets;
+    }
+
+    /**
+     * Busca por nome no {@link PlanetNameIndex}, sem ir ao banco: exatos, depois prefixos, depois aproximados.
+     */
+    public List<PlanetNameMatch> search(String query, int limit) {
+        return planetMetrics.time("search", () -> planetNameIndex.search(query, Math.clamp(limit, 1, MAX_SEARCH_SIZE)));
+    }
+
+    public PlanetPage page(String terrain, String climate, String cursor, int limit) {
+        return planetMetrics.time("page", () -> findPage(terrain, climate, cursor, limit));
+    }
+
+    private PlanetPage findPage(String terrain, String climate, String cursor, int limit) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        long lastId = PlanetCursor.decode(cursor);
+
+        // Busca um registro a mais só para saber se existe próxima página.
+        List<Planet> planets = planetRepository.findPage(lastId, QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate), Limit.of(size + 1));
+        if (planets.size() <= size) {
+            return new PlanetPage(planets, null);
+        }
+        List<Planet> items = planets.subList(0, size);
+        return new PlanetPage(List.copyOf(items), PlanetCursor.encode(items.getLast().getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public void stream(String terrain, String climate, Consumer<Planet> consumer) {
+        try (Stream<Planet> planets = planetRepository.streamByFilter(QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate))) {
+            planets.forEach(planet -> {
+                consumer.accept(planet);
+                // Solta a entidade do contexto de persistência para a memória não crescer com o resultado.
+                entityManager.detach(planet);
+            });
+        }
     }
 
-    public List<Planet> list(String terrain, String climate) {
-        Example<Planet> query = QueryBuilder.makeQuery(new Planet(terrain, climate));
-        return planetRepository.findAll(query);
+    /**
+     * Alterações registradas no outbox depois do cursor {@code since} (do início, se nulo), em ordem.
+     */
+    public PlanetChangePage changes(String since, int limit) {
+        long seq = PlanetCursor.decode(since);
+        List<PlanetChange> changes = planetMetrics.time("changes", () -> planetOutbox.since(seq, Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+        long next = changes.isEmpty() ? seq : changes.getLast().seq();
+        return new PlanetChangePage(changes, PlanetCursor.encode(next));
     }
 
+    /**
+     * @throws PlanetNaoEncontradaException se o id não existir
+     */
+    @Transactional
     public void remove(Long id) {
-        planetRepository.deleteById(id);
+        int deleted = planetMetrics.time("remove", () -> planetRepository.deleteRow(id));
+        if (deleted == 0) {
+            // Nada a confirmar, mas o que estiver em cache para o id está velho.
+            planetCache.invalidate(id, null);
+            planetMetrics.deleteMiss();
+            throw new PlanetNaoEncontradaException(id);
+        }
+        afterCommit(() -> {
+            planetCache.invalidate(id, null);
+            singleFlight.forget("list");
+        });
+        planetOutbox.recordRemoved(id);
+        eventPublisher.publishEvent(new PlanetRemovedEvent(id));
+    }
+
+    /**
+     * Remove todos os ids num único comando e devolve quantos existiam.
+     *
+     * @throws PlanetNaoEncontradaException se nenhum dos ids existir
+     */
+    @Transactional
+    public int removeAll(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+        // Antes do DELETE, para o outbox receber só os ids que existiam.
+        planetOutbox.recordRemoved(distinct);
+        int deleted = planetMetrics.time("removeAll", () -> planetRepository.deleteRows(distinct));
+        if (deleted == 0) {
+            distinct.forEach(id -> planetCache.invalidate(id, null));
+            planetMetrics.deleteMiss();
+            throw new PlanetNaoEncontradaException(distinct);
+        }
+        afterCommit(() -> {
+            distinct.forEach(id -> planetCache.invalidate(id, null));
+            singleFlight.forget("list");
+        });
+        // Quem escuta trata a remoção de um id inexistente como nada a fazer.
+        distinct.forEach(id -> eventPublisher.publishEvent(new PlanetRemovedEvent(id)));
+        return deleted;
+    }
+
+    private List<PlanetBatchResult> insertChunk(Map<Integer, Planet> chunk) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        Set<String> existing = planetBatchWriter.findExistingNames(chunk.values().stream().map(Planet::getName).toList());
+        List<Planet> pending = chunk.values().stream().filter(planet -> !existing.contains(planet.getName())).toList();
+
+        Map<String, Long> ids;
+        try {
+            ids = pending.isEmpty() ? Map.of() : planetBatchWriter.insert(pending);
+        } catch (DuplicateKeyException ex) {
+            // Algum nome foi gravado por outra requisição depois da verificação: refaz linha a linha.
+            ids = new HashMap<>();
+            for (Planet planet : pending) {
+                try {
+                    ids.putAll(planetBatchWriter.insert(List.of(planet)));
+                } catch (DuplicateKeyException duplicate) {
+                    // O nome fica sem id e é reportado como conflito abaixo.
+                }
+            }
+        }
+
+        List<PlanetBatchResult> results = new ArrayList<>(chunk.size());
+        List<Planet> created = new ArrayList<>(ids.size());
+        for (Map.Entry<Integer, Planet> entry : chunk.entrySet()) {
+            Planet planet = entry.getValue();
+            Long id = ids.get(planet.getName());
+            if (id == null) {
+                results.add(PlanetBatchResult.conflict(entry.getKey(), planet.getName()));
+            } else {
+                planet.setId(id);
+                created.add(planet);
+                results.add(PlanetBatchResult.created(entry.getKey(), planet.getName(), id));
+            }
+        }
+        // O lote já foi gravado: o snapshot troca de versão uma vez por lote, não por planeta.
+        planetSnapshot.inBatch(() -> created.forEach(this::afterCreate));
+        return results;
+    }
+
+    private Optional<Planet> cachedGet(Long id) {
+        return planetCache.get(id, planetRepository::findById);
+    }
+
+    private Optional<Planet> found(String operation, Optional<Planet> planet) {
+        if (planet.isEmpty()) {
+            planetMetrics.notFound(operation);
+        }
+        return planet;
+    }
+
+    private void afterCreate(Planet created) {
+        // O id pode estar em cache como inexistente e o nome como livre.
+        afterCommit(() -> {
+            planetCache.invalidate(created.getId(), created.getName());
+            singleFlight.forget("list");
+        });
+        eventPublisher.publishEvent(new PlanetCreatedEvent(created));
+    }
+
+    /**
+     * Roda {@code action} depois do commit da transação atual, ou já, se não houver transação. Invalidado antes do
+     * commit, o cache seria preenchido de novo com o dado antigo por uma leitura concorrente. Os eventos continuam
+     * publicados na transação; quem escuta usa {@code @TransactionalEventListener}.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record ListKey(String terrain, String climate, Set<String> fields) {
+    }
+
+    private void validate(Planet planet) {
+        Set<ConstraintViolation<Planet>> violations = validator.validate(planet);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private static String describe(Set<ConstraintViolation<Planet>> violations) {
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
     }
 }
@@ -0,0 +1,108 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.exception.EsperaEsgotadaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Junta chamadas concorrentes iguais numa só consulta: a primeira executa na própria thread e as que chegam
+ * enquanto ela roda recebem o mesmo resultado, ou a mesma exceção. A espera é limitada por
+ * {@code planet.single-flight.max-wait}; passado o limite a chamada falha com {@link EsperaEsgotadaException}
+ * em vez de prender a thread da requisição atrás de uma consulta travada.
+ * <p>
+ * Publica {@code planet.service.coalesced{operation=...}}, as chamadas atendidas pela consulta de outra, e
+ * {@code planet.service.coalesced.timeouts{operation=...}}, as que desistiram de esperar.
+ */
+@Component
+public class PlanetSingleFlight {
+
+    private final MeterRegistry registry;
+    private final Duration maxWait;
+    private final Map<String, ConcurrentMap<Object, CompletableFuture<Object>>> flights = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalesced = new ConcurrentHashMap<>();
+    private final Map<String, Counter> timeouts = new ConcurrentHashMap<>();
+
+    public PlanetSingleFlight(MeterRegistry registry, @Value("${planet.single-flight.max-wait:PT2S}") Duration maxWait) {
+        this.registry = registry;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Executa {@code call}, a menos que já exista uma chamada de {@code operation} com a mesma chave em
+     * andamento; nesse caso espera o resultado dela.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V run(String operation, Object key, Supplier<V> call) {
+        ConcurrentMap<Object, CompletableFuture<Object>> inFlight = flights.computeIfAbsent(operation, name -> new ConcurrentHashMap<>());
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            return (V) await(operation, running);
+        }
+        try {
+            V value = call.get();
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            pending.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    /**
+     * Espera uma consulta que outra thread já começou, como a carga de uma chave do {@link PlanetCache}, com o
+     * mesmo limite e as mesmas métricas de {@link #run}.
+     */
+    public <V> V await(String operation, CompletableFuture<V> running) {
+        counter(coalesced, "planet.service.coalesced", "Chamadas atendidas pela consulta de outra", operation).increment();
+        try {
+            return running.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            counter(timeouts, "planet.service.coalesced.timeouts", "Chamadas que desistiram de esperar a consulta de outra", operation).increment();
+            throw new EsperaEsgotadaException(operation, maxWait);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new EsperaEsgotadaException(operation, maxWait);
+        }
+    }
+
+    /**
+     * Quem chamar {@code operation} daqui em diante não aproveita as consultas já em andamento. Deve ser chamado
+     * depois de uma escrita, para ninguém receber um resultado lido antes dela.
+     */
+    public void forget(String operation) {
+        ConcurrentMap<Object, CompletableFuture<Object>> inFlight = flights.get(operation);
+        if (inFlight != null) {
+            inFlight.clear();
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String name, String description, String operation) {
+        return counters.computeIfAbsent(operation, key -> Counter.builder(name)
+            .description(description)
+            .tag("operation", key)
+            .register(registry));
+    }
+}
@@ -0,0 +1,481 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catálogo inteiro em memória para servir {@code get}, {@code findByName} e {@code list} sem ir ao banco, ligado por
+ * {@code planet.snapshot.enabled}. Cada versão é imutável: as leituras usam a referência atual sem trava e as
+ * alterações de uma transação, depois do commit, são relidas do banco numa consulta só e publicadas numa única cópia.
+ * As leituras do banco, inclusive a carga, rodam fora da trava, que só protege a troca da versão; cada releitura
+ * recebe um número de ordem na partida, e uma releitura mais antiga que termina depois não sobrescreve a mais nova.
+ * As trocas copiam os mapas inteiros, então o modo serve para catálogos pequenos e muito lidos; a criação em lote
+ * paga uma cópia por lote, não por planeta.
+ */
+@Component
+public class PlanetSnapshot {
+
+    private static final int WARM_UP_PAGE_SIZE = 1000;
+
+    private final PlanetRepository planetRepository;
+    private final boolean enabled;
+    // Alterações juntadas por inBatch na thread atual, fora de transação.
+    private final ThreadLocal<Map<Long, Boolean>> batch = new ThreadLocal<>();
+    // Nulo até a carga terminar; depois só é trocado por uma versão nova, nunca volta a nulo.
+    private volatile Snapshot current;
+
+    // ReentrantLock, e não synchronized, para não prender a thread de plataforma de uma virtual thread que espera.
+    private final ReentrantLock lock = new ReentrantLock();
+    // Os campos abaixo são protegidos por lock.
+    private long sequence;
+    // Releituras (e a carga) em andamento; quando chega a zero, applied pode ser esquecido.
+    private int reading;
+    private boolean loading;
+    // Ordem da carga que gerou a versão atual: vale para todo id sem entrada em applied.
+    private long loadedAt;
+    // Ordem da última releitura publicada de cada id, enquanto houver releituras concorrentes.
+    private final Map<Long, Long> applied = new HashMap<>();
+    // Releituras terminadas durante a carga, aplicadas sobre ela.
+    private final List<Reread> early = new ArrayList<>();
+
+    public PlanetSnapshot(PlanetRepository planetRepository, @Value("${planet.snapshot.enabled:false}") boolean enabled) {
+        this.planetRepository = planetRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Indica se as leituras já podem vir do snapshot; antes disso (ou com o modo desligado) vão ao banco.
+     */
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Lê a tabela em páginas fora da trava. As releituras que terminam enquanto isso ficam guardadas e são aplicadas
+     * sobre a carga, exceto as que começaram antes dela, cujas linhas a carga já leu.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long order;
+        lock.lock();
+        try {
+            if (loading) {
+                return;
+            }
+            loading = true;
+            order = ++sequence;
+            reading++;
+        } finally {
+            lock.unlock();
+        }
+        Snapshot loaded = null;
+        try {
+            loaded = Snapshot.of(readAll());
+        } finally {
+            lock.lock();
+            try {
+                if (loaded != null) {
+                    loadedAt = order;
+                    applied.clear();
+                    for (Reread reread : early) {
+                        loaded = publish(loaded, reread);
+                    }
+                    current = loaded;
+                }
+                early.clear();
+                loading = false;
+                finishReading();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private List<Planet> readAll() {
+        List<Planet> planets = new ArrayList<>();
+        long lastId = 0L;
+        List<Planet> page;
+        do {
+            page = planetRepository.findPage(lastId, null, null, Limit.of(WARM_UP_PAGE_SIZE));
+            planets.addAll(page);
+            lastId = page.isEmpty() ? lastId : page.getLast().getId();
+        } while (page.size() == WARM_UP_PAGE_SIZE);
+        return planets;
+    }
+
+    @EventListener
+    public void onCreated(PlanetCreatedEvent event) {
+        changed(event.planet().getId(), true);
+    }
+
+    @EventListener
+    public void onUpdated(PlanetUpdatedEvent event) {
+        changed(event.planet().getId(), true);
+    }
+
+    @EventListener
+    public void onRemoved(PlanetRemovedEvent event) {
+        changed(event.id(), false);
+    }
+
+    /**
+     * Roda {@code publish} e aplica numa cópia só as alterações publicadas por ele, para quem publica uma por
+     * planeta fora de transação, como a criação em lote, que grava cada lote numa transação própria.
+     */
+    public void inBatch(Runnable publish) {
+        if (batch.get() != null) {
+            publish.run();
+            return;
+        }
+        Map<Long, Boolean> changes = new LinkedHashMap<>();
+        batch.set(changes);
+        try {
+            publish.run();
+        } finally {
+            batch.remove();
+        }
+        apply(changes);
+    }
+
+    /**
+     * Acumula as alterações da transação atual para aplicá-las juntas depois do commit, numa cópia só; um rollback
+     * descarta tudo. Dentro de {@link #inBatch}, acumula até o fim dele; sem transação, aplica na hora.
+     * {@code reload} diz se o planeta deve ser relido do banco ou só removido; vale a última alteração de cada id.
+     */
+    @SuppressWarnings("unchecked")
+    private void changed(Long id, boolean reload) {
+        Map<Long, Boolean> batched = batch.get();
+        if (batched != null) {
+            batched.put(id, reload);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(id, reload));
+            return;
+        }
+        Map<Long, Boolean> pending = (Map<Long, Boolean>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Boolean> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PlanetSnapshot.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.put(id, reload);
+    }
+
+    /**
+     * Relê do banco, numa consulta e fora da trava, os planetas a recarregar (com versão e data de modificação) e
+     * publica uma versão com eles; os ids removidos, ou que não existem mais, saem do snapshot.
+     */
+    private void apply(Map<Long, Boolean> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long order;
+        lock.lock();
+        try {
+            if (current == null && !loading) {
+                // A carga ainda não começou e vai ler as linhas já gravadas.
+                return;
+            }
+            order = ++sequence;
+            reading++;
+        } finally {
+            lock.unlock();
+        }
+        Reread reread = null;
+        try {
+            List<Long> reload = changes.entrySet().stream().filter(Map.Entry::getValue).map(Map.Entry::getKey).toList();
+            reread = new Reread(order, changes.keySet(), reload.isEmpty() ? List.of() : planetRepository.findAllById(reload));
+        } finally {
+            lock.lock();
+            try {
+                if (reread != null && loading) {
+                    early.add(reread);
+                } else if (reread != null) {
+                    current = publish(current, reread);
+                }
+                finishReading();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Aplica a releitura só aos ids cuja última releitura publicada começou antes dela: a que começou depois leu o
+     * banco depois, então o que ela publicou é pelo menos tão novo. Chamado com a trava.
+     */
+    private Snapshot publish(Snapshot snapshot, Reread reread) {
+        Set<Long> ids = new HashSet<>();
+        for (Long id : reread.ids()) {
+            if (applied.getOrDefault(id, loadedAt) < reread.order()) {
+                ids.add(id);
+                applied.put(id, reread.order());
+            }
+        }
+        if (ids.isEmpty()) {
+            return snapshot;
+        }
+        List<Planet> planets = reread.planets().stream().filter(planet -> ids.contains(planet.getId())).toList();
+        return snapshot.changed(ids, planets);
+    }
+
+    private void finishReading() {
+        if (--reading == 0) {
+            // Sem releitura em andamento, nenhuma mais antiga pode chegar: toda nova terá ordem maior.
+            applied.clear();
+        }
+    }
+
+    public Optional<Planet> get(Long id) {
+        return Optional.ofNullable(current.byId().get(id));
+    }
+
+    public Optional<Planet> findByName(String name) {
+        return Optional.ofNullable(current.byName().get(QueryBuilder.normalize(name)));
+    }
+
+    /**
+     * Mesmo resultado de {@link PlanetRepository#findViews}: igualdade sem diferenciar maiúsculas, ordenado por id
+     * e com os campos fora de {@code fields} nulos. Com todos os campos, devolve a lista já montada no snapshot.
+     */
+    public List<PlanetView> list(String terrain, String climate, Set<String> fields) {
+        List<Entry> entries = entries(terrain, climate);
+        if (fields.size() == PlanetView.FIELDS.size()) {
+            return new Views(entries);
+        }
+        List<PlanetView> views = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            PlanetView view = entry.view();
+            views.add(new PlanetView(
+                fields.contains("id") ? view.id() : null,
+                fields.contains("name") ? view.name() : null,
+                fields.contains("climate") ? view.climate() : null,
+                fields.contains("terrain") ? view.terrain() : null));
+        }
+        return views;
+    }
+
+    /**
+     * Contagem, maior id e última modificação guardados em cada lista quando ela é montada, sem percorrê-la.
+     */
+    public PlanetListVersion listVersion(String terrain, String climate) {
+        Listing listing = listing(terrain, climate);
+        List<Entry> entries = listing.entries();
+        return new PlanetListVersion(entries.size(), entries.isEmpty() ? null : entries.getLast().id(), listing.lastModified());
+    }
+
+    public long count(String terrain, String climate) {
+        return entries(terrain, climate).size();
+    }
+
+    /**
+     * Mesmo resultado de {@link PlanetRepository#countByTerrainAndClimate}, pelo tamanho das listas de cada par
+     * de terrain e climate, sem percorrer os planetas.
+     */
+    public List<PlanetGroupCount> countByTerrainAndClimate(String terrain, String climate) {
+        String terrainKey = QueryBuilder.normalize(terrain);
+        String climateKey = QueryBuilder.normalize(climate);
+        List<PlanetGroupCount> groups = new ArrayList<>();
+        current.lists().forEach((filter, listing) -> {
+            if (filter.terrainKey() != null && filter.climateKey() != null
+                && (terrainKey == null || terrainKey.equals(filter.terrainKey()))
+                && (climateKey == null || climateKey.equals(filter.climateKey()))) {
+                groups.add(new PlanetGroupCount(filter.terrainKey(), filter.climateKey(), listing.entries().size()));
+            }
+        });
+        return groups;
+    }
+
+    private List<Entry> entries(String terrain, String climate) {
+        return listing(terrain, climate).entries();
+    }
+
+    private Listing listing(String terrain, String climate) {
+        return current.lists().getOrDefault(new PlanetFilter(QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate)), Listing.EMPTY);
+    }
+
+    /**
+     * Ids alterados e planetas relidos por uma releitura, com a ordem em que ela começou.
+     */
+    private record Reread(long order, Set<Long> ids, List<Planet> planets) {
+    }
+
+    /**
+     * Planeta e a sua projeção completa, montada uma vez por versão do planeta.
+     */
+    private record Entry(Planet planet, PlanetView view) {
+
+        static Entry of(Planet planet) {
+            return new Entry(planet, PlanetView.of(planet));
+        }
+
+        long id() {
+            return planet.getId();
+        }
+
+        /**
+         * As quatro listagens em que o planeta aparece: sem filtro, por terrain, por climate e pelos dois.
+         */
+        static List<PlanetFilter> filters(Planet planet) {
+            String terrain = QueryBuilder.normalize(planet.getTerrain());
+            String climate = QueryBuilder.normalize(planet.getClimate());
+            return List.of(new PlanetFilter(null, null), new PlanetFilter(terrain, null),
+                new PlanetFilter(null, climate), new PlanetFilter(terrain, climate));
+        }
+    }
+
+    /**
+     * Planetas de uma combinação de filtros, ordenados por id, e a maior data de modificação entre eles.
+     */
+    private record Listing(List<Entry> entries, Instant lastModified) {
+
+        static final Listing EMPTY = new Listing(List.of(), null);
+
+        static Listing of(List<Entry> entries) {
+            Instant lastModified = null;
+            for (Entry entry : entries) {
+                Instant modified = entry.planet().getLastModified();
+                if (modified != null && (lastModified == null || modified.isAfter(lastModified))) {
+                    lastModified = modified;
+                }
+            }
+            return new Listing(entries, lastModified);
+        }
+    }
+
+    /**
+     * Uma versão do catálogo. Os mapas e listas não mudam depois de publicados; {@link #changed} devolve uma cópia.
+     * {@code byName} usa o nome normalizado, como a comparação do MySQL, e {@code lists} guarda, para cada
+     * combinação de filtros existente, os planetas ordenados por id.
+     */
+    private record Snapshot(Map<Long, Planet> byId, Map<String, Planet> byName, Map<PlanetFilter, Listing> lists) {
+
+        static Snapshot of(List<Planet> planets) {
+            Map<Long, Planet> byId = new HashMap<>();
+            Map<String, Planet> byName = new HashMap<>();
+            Map<PlanetFilter, List<Entry>> lists = new HashMap<>();
+            List<Planet> sorted = new ArrayList<>(planets);
+            sorted.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+            for (Planet planet : sorted) {
+                byId.put(planet.getId(), planet);
+                byName.put(QueryBuilder.normalize(planet.getName()), planet);
+                Entry entry = Entry.of(planet);
+                Entry.filters(planet).forEach(filter -> lists.computeIfAbsent(filter, key -> new ArrayList<>()).add(entry));
+            }
+            Map<PlanetFilter, Listing> listings = new HashMap<>();
+            lists.forEach((filter, entries) -> listings.put(filter, Listing.of(entries)));
+            return new Snapshot(byId, byName, listings);
+        }
+
+        /**
+         * Tira os planetas de {@code ids} e põe {@code planets} (relidos do banco). Só as listas das combinações
+         * afetadas são copiadas, cada uma uma vez e com a data de modificação recalculada; as demais são
+         * compartilhadas com a versão anterior.
+         */
+        Snapshot changed(Collection<Long> ids, List<Planet> planets) {
+            Map<Long, Planet> newById = new HashMap<>(byId);
+            Map<String, Planet> newByName = new HashMap<>(byName);
+            Map<PlanetFilter, Set<Long>> removed = new HashMap<>();
+            Map<PlanetFilter, List<Entry>> added = new HashMap<>();
+            for (Long id : ids) {
+                Planet old = newById.remove(id);
+                if (old != null) {
+                    newByName.remove(QueryBuilder.normalize(old.getName()));
+                    Entry.filters(old).forEach(filter -> removed.computeIfAbsent(filter, key -> new HashSet<>()).add(id));
+                }
+            }
+            for (Planet planet : planets) {
+                newById.put(planet.getId(), planet);
+                newByName.put(QueryBuilder.normalize(planet.getName()), planet);
+                Entry entry = Entry.of(planet);
+                Entry.filters(planet).forEach(filter -> added.computeIfAbsent(filter, key -> new ArrayList<>()).add(entry));
+            }
+
+            Map<PlanetFilter, Listing> newLists = new HashMap<>(lists);
+            Set<PlanetFilter> affected = new HashSet<>(removed.keySet());
+            affected.addAll(added.keySet());
+            for (PlanetFilter filter : affected) {
+                Set<Long> removedIds = removed.getOrDefault(filter, Set.of());
+                List<Entry> additions = added.getOrDefault(filter, List.of());
+                List<Entry> previous = lists.getOrDefault(filter, Listing.EMPTY).entries();
+                List<Entry> list = new ArrayList<>(previous.size() + additions.size());
+                for (Entry entry : previous) {
+                    if (!removedIds.contains(entry.id())) {
+                        list.add(entry);
+                    }
+                }
+                if (!additions.isEmpty()) {
+                    list.addAll(additions);
+                    // Quase ordenada (ids novos vão para o fim), o que o TimSort resolve em tempo perto de linear.
+                    list.sort(Comparator.comparingLong(Entry::id));
+                }
+                if (list.isEmpty()) {
+                    newLists.remove(filter);
+                } else {
+                    newLists.put(filter, Listing.of(list));
+                }
+            }
+            return new Snapshot(newById, newByName, newLists);
+        }
+    }
+
+    /**
+     * Projeções de uma lista do snapshot, só para leitura e sem cópia.
+     */
+    private static final class Views extends AbstractList<PlanetView> implements RandomAccess {
+
+        private final List<Entry> entries;
+
+        Views(List<Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public PlanetView get(int index) {
+            return entries.get(index).view();
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+}
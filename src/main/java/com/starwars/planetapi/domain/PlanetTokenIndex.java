@@ -0,0 +1,194 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória: token de climate/terrain para o bitmap dos ids que o contêm.
+ * É carregado na subida da aplicação e mantido pelos eventos de criação e remoção de planetas, aplicados só depois
+ * do commit. Eventos que chegam durante a carga são guardados e reaplicados no fim, na ordem, para uma remoção
+ * confirmada depois da leitura da página não deixar o id no índice.
+ */
+@Component
+public class PlanetTokenIndex {
+
+    private static final int WARM_UP_PAGE_SIZE = 1000;
+
+    private final PlanetRepository planetRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Roaring64Bitmap> idsByTerrain = new HashMap<>();
+    private final Map<String, Roaring64Bitmap> idsByClimate = new HashMap<>();
+    private final Map<Long, Tokens> indexed = new HashMap<>();
+    private final Roaring64Bitmap allIds = new Roaring64Bitmap();
+    // Não nulo só durante a carga; protegido pela trava de escrita.
+    private List<Runnable> warmUpChanges;
+
+    public PlanetTokenIndex(PlanetRepository planetRepository) {
+        this.planetRepository = planetRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            warmUpChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long lastId = 0L;
+            List<Planet> page;
+            do {
+                page = planetRepository.findPage(lastId, null, null, Limit.of(WARM_UP_PAGE_SIZE));
+                page.forEach(this::add);
+                lastId = page.isEmpty() ? lastId : page.getLast().getId();
+            } while (page.size() == WARM_UP_PAGE_SIZE);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Runnable> changes = warmUpChanges;
+                warmUpChanges = null;
+                changes.forEach(Runnable::run);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(PlanetCreatedEvent event) {
+        apply(() -> add(event.planet()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUpdated(PlanetUpdatedEvent event) {
+        apply(() -> add(event.planet()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRemoved(PlanetRemovedEvent event) {
+        apply(() -> remove(event.id()));
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (warmUpChanges != null) {
+                warmUpChanges.add(change);
+            } else {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Planet planet) {
+        lock.writeLock().lock();
+        try {
+            Long id = planet.getId();
+            removeUnlocked(id);
+            Tokens tokens = new Tokens(PlanetTokens.parse(planet.getTerrain()), PlanetTokens.parse(planet.getClimate()));
+            tokens.terrain().forEach(token -> idsByTerrain.computeIfAbsent(token, key -> new Roaring64Bitmap()).addLong(id));
+            tokens.climate().forEach(token -> idsByClimate.computeIfAbsent(token, key -> new Roaring64Bitmap()).addLong(id));
+            indexed.put(id, tokens);
+            allIds.addLong(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids dos planetas que têm algum ({@link TokenMatch#ANY}) ou todos ({@link TokenMatch#ALL}) os tokens
+     * informados em cada dimensão. As dimensões informadas são combinadas com E; sem tokens, não há filtro.
+     */
+    public Roaring64Bitmap match(Set<String> terrains, Set<String> climates, TokenMatch match) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = null;
+            if (!terrains.isEmpty()) {
+                result = combine(idsByTerrain, terrains, match);
+            }
+            if (!climates.isEmpty()) {
+                Roaring64Bitmap byClimate = combine(idsByClimate, climates, match);
+                result = result == null ? byClimate : and(result, byClimate);
+            }
+            return result == null ? copy(allIds) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Roaring64Bitmap combine(Map<String, Roaring64Bitmap> index, Set<String> tokens, TokenMatch match) {
+        Roaring64Bitmap result = null;
+        for (String token : tokens) {
+            Roaring64Bitmap ids = index.getOrDefault(token, new Roaring64Bitmap());
+            if (result == null) {
+                result = copy(ids);
+            } else if (match == TokenMatch.ALL) {
+                result.and(ids);
+            } else {
+                result.or(ids);
+            }
+        }
+        return result;
+    }
+
+    private static Roaring64Bitmap and(Roaring64Bitmap left, Roaring64Bitmap right) {
+        left.and(right);
+        return left;
+    }
+
+    private static Roaring64Bitmap copy(Roaring64Bitmap ids) {
+        Roaring64Bitmap copy = new Roaring64Bitmap();
+        copy.or(ids);
+        return copy;
+    }
+
+    private void removeUnlocked(Long id) {
+        Tokens previous = indexed.remove(id);
+        if (previous == null) {
+            return;
+        }
+        previous.terrain().forEach(token -> removeToken(idsByTerrain, token, id));
+        previous.climate().forEach(token -> removeToken(idsByClimate, token, id));
+        allIds.removeLong(id);
+    }
+
+    private static void removeToken(Map<String, Roaring64Bitmap> index, String token, Long id) {
+        Roaring64Bitmap ids = index.get(token);
+        if (ids != null) {
+            ids.removeLong(id);
+            if (ids.isEmpty()) {
+                index.remove(token);
+            }
+        }
+    }
+
+    private record Tokens(Set<String> terrain, Set<String> climate) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.starwars.planetapi.domain;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Quebra valores como {@code "grasslands, mountains"} no conjunto de tokens normalizados.
+ */
+public class PlanetTokens {
+
+    private PlanetTokens() {}
+
+    public static Set<String> parse(String value) {
+        if (value == null) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(token -> !token.isEmpty())
+            .map(QueryBuilder::normalize)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+}
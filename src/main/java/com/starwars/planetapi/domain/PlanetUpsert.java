@@ -0,0 +1,10 @@
+package com.starwars.planetapi.domain;
+
+public record PlanetUpsert(Planet planet, Status status) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        UNCHANGED
+    }
+}
@@ -0,0 +1,46 @@
+package com.starwars.planetapi.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.starwars.planetapi.domain.exception.CampoInvalidoException;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Projeção de {@link Planet} para listagens: vem do banco direto para o record, sem entidade gerenciada nem
+ * snapshot para dirty checking. Campos que não foram pedidos ficam nulos e não são serializados (as colunas
+ * de {@code planets} são todas {@code not null}).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlanetView(Long id, String name, String climate, String terrain) {
+
+    /** Campos aceitos em {@code fields=}, na ordem do construtor. */
+    public static final List<String> FIELDS = List.of("id", "name", "climate", "terrain");
+
+    /**
+     * Normaliza os campos pedidos na ordem de {@link #FIELDS}; nulo ou vazio seleciona todos.
+     *
+     * @throws CampoInvalidoException se algum campo não existir
+     */
+    public static Set<String> select(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return new LinkedHashSet<>(FIELDS);
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        fields.forEach(field -> requested.add(field.trim().toLowerCase(Locale.ROOT)));
+        List<String> unknown = requested.stream().filter(field -> !FIELDS.contains(field)).toList();
+        if (!unknown.isEmpty()) {
+            throw new CampoInvalidoException(unknown, FIELDS);
+        }
+        Set<String> selected = new LinkedHashSet<>(FIELDS);
+        selected.retainAll(requested);
+        return selected;
+    }
+
+    public static PlanetView of(Planet planet) {
+        return new PlanetView(planet.getId(), planet.getName(), planet.getClimate(), planet.getTerrain());
+    }
+}
@@ -0,0 +1,17 @@
+package com.starwars.planetapi.domain;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fragmento do {@link PlanetRepository} para listagens projetadas em {@link PlanetView}.
+ */
+public interface PlanetViewRepository {
+
+    /**
+     * Seleciona só as colunas de {@code fields} (nomes de {@link PlanetView#FIELDS}), ordenado por id.
+     */
+    List<PlanetView> findViews(Specification<Planet> filter, Set<String> fields);
+}
@@ -0,0 +1,49 @@
+package com.starwars.planetapi.domain;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+class PlanetViewRepositoryImpl implements PlanetViewRepository {
+
+    private static final List<Class<?>> TYPES = List.of(Long.class, String.class, String.class, String.class);
+
+    private final EntityManager entityManager;
+
+    PlanetViewRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PlanetView> findViews(Specification<Planet> filter, Set<String> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PlanetView> query = criteriaBuilder.createQuery(PlanetView.class);
+        Root<Planet> root = query.from(Planet.class);
+
+        // Campo não pedido vira null no select: o construtor do record é sempre o mesmo e a coluna não é lida.
+        Selection<?>[] selections = new Selection<?>[PlanetView.FIELDS.size()];
+        for (int i = 0; i < selections.length; i++) {
+            String field = PlanetView.FIELDS.get(i);
+            selections[i] = fields.contains(field) ? root.get(field) : criteriaBuilder.nullLiteral(TYPES.get(i));
+        }
+        query.select(criteriaBuilder.construct(PlanetView.class, selections))
+            .where(filter.toPredicate(root, query, criteriaBuilder))
+            .orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+            .setHint(HINT_READ_ONLY, true)
+            .setFlushMode(FlushModeType.COMMIT)
+            .getResultList();
+    }
+}
@@ -0,0 +1,16 @@
+package com.starwars.planetapi.domain;
+
+import java.util.Optional;
+
+/**
+ * Fragmento do {@link PlanetRepository} para gravações que informam conflito pela contagem de linhas, sem
+ * depender da exceção da constraint {@code uk_planets_name}.
+ */
+public interface PlanetWriteRepository {
+
+    /**
+     * Insere o planeta se o nome ainda não existir e devolve o planeta gravado, com o id, a versão e a data de
+     * modificação; vazio se o nome já existia, inclusive quando outra transação o grava ao mesmo tempo.
+     */
+    Optional<Planet> insertIfAbsent(Planet planet);
+}
@@ -0,0 +1,49 @@
+package com.starwars.planetapi.domain;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+class PlanetWriteRepositoryImpl implements PlanetWriteRepository {
+
+    // O nome repetido vira zero linhas pela própria uk_planets_name. Um INSERT ... SELECT com NOT EXISTS pegaria
+    // locks compartilhados de intervalo no REPEATABLE READ do InnoDB, e duas criações do mesmo nome podiam dar
+    // deadlock. ON DUPLICATE KEY UPDATE id = id não serve: o Connector/J conta a linha encontrada como afetada.
+    // No H2, o INSERT IGNORE exige MODE=MySQL.
+    private static final String INSERT_IF_ABSENT = "INSERT IGNORE INTO planets (name, climate, terrain, last_modified) "
+        + "VALUES (:name, :climate, :terrain, :lastModified)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    PlanetWriteRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Planet> insertIfAbsent(Planet planet) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        // Gravada aqui, e não pelo default da coluna, para o 201 já sair com Last-Modified.
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        int inserted = jdbcTemplate.update(INSERT_IF_ABSENT, new MapSqlParameterSource()
+            .addValue("name", planet.getName())
+            .addValue("climate", planet.getClimate())
+            .addValue("terrain", planet.getTerrain())
+            .addValue("lastModified", Timestamp.from(lastModified)), keyHolder, new String[]{"id"});
+        if (inserted == 0) {
+            return Optional.empty();
+        }
+        // O driver do MySQL devolve a chave como BigInteger e o H2 como Long.
+        Planet created = new Planet(keyHolder.getKey().longValue(), planet.getName(), planet.getClimate(), planet.getTerrain());
+        created.setVersion(0L);
+        created.setLastModified(lastModified);
+        return Optional.of(created);
+    }
+}
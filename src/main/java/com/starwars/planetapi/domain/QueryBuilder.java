@@ -1,14 +1,18 @@
 package com.starwars.planetapi.domain;
 
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
 
 public class QueryBuilder {
 
     private QueryBuilder() {}
 
-    public static Example<Planet> makeQuery(Planet planet) {
-        ExampleMatcher exampleMatcher = ExampleMatcher.matchingAll().withIgnoreCase().withIgnoreNullValues();
-        return Example.of(planet, exampleMatcher);
+    public static Specification<Planet> makeQuery(Planet planet) {
+        return new PlanetFilter(normalize(planet.getTerrain()), normalize(planet.getClimate()));
+    }
+
+    public static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,71 @@
+package com.starwars.planetapi.domain;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Leitura reativa da tabela {@code planets} via R2DBC, usada pelo profile {@code reactive}. As consultas são as
+ * mesmas do {@link PlanetRepository}: filtros pelas colunas normalizadas e listagens ordenadas por id. As escritas
+ * vão pelo {@link PlanetService}, por causa do outbox.
+ */
+@Repository
+@Profile("reactive")
+public class ReactivePlanetRepository {
+
+    private static final String COLUMNS = "id, name, climate, terrain, version";
+    private static final int FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactivePlanetRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Planet> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM planets WHERE id = :id")
+            .bind("id", id)
+            .map(ReactivePlanetRepository::toPlanet)
+            .one();
+    }
+
+    public Mono<Planet> findByName(String name) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM planets WHERE name = :name")
+            .bind("name", name)
+            .map(ReactivePlanetRepository::toPlanet)
+            .one();
+    }
+
+    /**
+     * Espera os filtros já normalizados ({@link QueryBuilder#normalize}). As linhas são lidas conforme a
+     * demanda de quem assina, {@value #FETCH_SIZE} por vez.
+     */
+    public Flux<Planet> findByFilter(String terrain, String climate) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM planets WHERE 1 = 1");
+        if (terrain != null) {
+            sql.append(" AND terrain_key = :terrain");
+        }
+        if (climate != null) {
+            sql.append(" AND climate_key = :climate");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.append(" ORDER BY id").toString())
+            .filter(statement -> statement.fetchSize(FETCH_SIZE));
+        if (terrain != null) {
+            spec = spec.bind("terrain", terrain);
+        }
+        if (climate != null) {
+            spec = spec.bind("climate", climate);
+        }
+        return spec.map(ReactivePlanetRepository::toPlanet).all();
+    }
+
+    private static Planet toPlanet(Readable row) {
+        Planet planet = new Planet(row.get("id", Long.class), row.get("name", String.class),
+            row.get("climate", String.class), row.get("terrain", String.class));
+        planet.setVersion(row.get("version", Long.class));
+        return planet;
+    }
+}
@@ -0,0 +1,46 @@
+package com.starwars.planetapi.domain;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Versão reativa do {@link PlanetService} para o profile {@code reactive}. As leituras vão pelo R2DBC. As escritas
+ * passam pelo próprio {@link PlanetService}, num worker do {@link Schedulers#boundedElastic()}: gravam o outbox na
+ * mesma transação, invalidam os caches e publicam os mesmos eventos, e os listeners (snapshot, índices), que
+ * bloqueiam, rodam fora do event loop do Netty.
+ */
+@Service
+@Profile("reactive")
+public class ReactivePlanetService {
+
+    private final ReactivePlanetRepository planetRepository;
+    private final PlanetService planetService;
+
+    public ReactivePlanetService(ReactivePlanetRepository planetRepository, PlanetService planetService) {
+        this.planetRepository = planetRepository;
+        this.planetService = planetService;
+    }
+
+    public Mono<Planet> create(Planet planet) {
+        return Mono.fromCallable(() -> planetService.create(planet)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Planet> get(Long id) {
+        return planetRepository.findById(id);
+    }
+
+    public Mono<Planet> findByName(String name) {
+        return planetRepository.findByName(name);
+    }
+
+    public Flux<Planet> list(String terrain, String climate) {
+        return planetRepository.findByFilter(QueryBuilder.normalize(terrain), QueryBuilder.normalize(climate));
+    }
+
+    public Mono<Void> remove(Long id) {
+        return Mono.fromRunnable(() -> planetService.remove(id)).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
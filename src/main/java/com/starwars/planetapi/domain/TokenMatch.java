@@ -0,0 +1,6 @@
+package com.starwars.planetapi.domain;
+
+public enum TokenMatch {
+    ANY,
+    ALL
+}
@@ -0,0 +1,4 @@
+package com.starwars.planetapi.domain.event;
+
+public record PlanetRemovedEvent(Long id) {
+}
@@ -0,0 +1,6 @@
+package com.starwars.planetapi.domain.event;
+
+import com.starwars.planetapi.domain.Planet;
+
+public record PlanetUpdatedEvent(Planet planet) {
+}
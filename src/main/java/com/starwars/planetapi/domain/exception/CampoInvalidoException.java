@@ -0,0 +1,12 @@
+package com.starwars.planetapi.domain.exception;
+
+import java.util.Collection;
+
+public class CampoInvalidoException extends RuntimeException {
+
+    private static final String MESSAGE = "Campos inválidos: %s. Use %s.";
+
+    public CampoInvalidoException(Collection<String> fields, Collection<String> accepted) {
+        super(String.format(MESSAGE, String.join(",", fields), String.join(",", accepted)));
+    }
+}
@@ -0,0 +1,10 @@
+package com.starwars.planetapi.domain.exception;
+
+public class CursorInvalidoException extends RuntimeException {
+
+    private static final String MESSAGE = "Cursor de paginação inválido: %s.";
+
+    public CursorInvalidoException(String cursor) {
+        super(String.format(MESSAGE, cursor));
+    }
+}
@@ -0,0 +1,12 @@
+package com.starwars.planetapi.domain.exception;
+
+import java.time.Duration;
+
+public class EsperaEsgotadaException extends RuntimeException {
+
+    private static final String MESSAGE = "Tempo de espera esgotado (%s) pela consulta %s em andamento.";
+
+    public EsperaEsgotadaException(String operation, Duration maxWait) {
+        super(String.format(MESSAGE, maxWait, operation));
+    }
+}
@@ -0,0 +1,39 @@
+package com.starwars.planetapi.domain.exception;
+
+import com.starwars.planetapi.domain.PlanetBatchResult;
+
+import java.util.List;
+
+/**
+ * Linha malformada numa importação em lote lida em partes. As linhas anteriores já foram gravadas e vão em
+ * {@link #getResults()}; as seguintes não foram lidas.
+ */
+public class LinhaInvalidaException extends RuntimeException {
+
+    private static final String MESSAGE = "Linha %d inválida: %s. %d planetas das linhas anteriores já foram criados.";
+
+    private final int line;
+    private final List<PlanetBatchResult> results;
+
+    public LinhaInvalidaException(int line, String error, List<PlanetBatchResult> results) {
+        super(String.format(MESSAGE, line, error, created(results)));
+        this.line = line;
+        this.results = results;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public long getCreated() {
+        return created(results);
+    }
+
+    public List<PlanetBatchResult> getResults() {
+        return results;
+    }
+
+    private static long created(List<PlanetBatchResult> results) {
+        return results.stream().filter(result -> result.status() == PlanetBatchResult.Status.CREATED).count();
+    }
+}
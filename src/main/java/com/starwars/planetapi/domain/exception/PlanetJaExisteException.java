@@ -0,0 +1,11 @@
+package com.starwars.planetapi.domain.exception;
+
+public class PlanetJaExisteException extends RuntimeException {
+
+    private static final String MESSAGE = "Já existe um planeta com o nome %s.";
+
+    public PlanetJaExisteException(String name) {
+        // Conflito é resposta esperada (409), não falha: sem stack trace, que dominaria o custo do caminho.
+        super(String.format(MESSAGE, name), null, false, false);
+    }
+}
@@ -1,10 +1,17 @@
 package com.starwars.planetapi.domain.exception;
 
+import java.util.Collection;
+
 public class PlanetNaoEncontradaException extends EntityNaoEncontradaException {
 
     private static final String MESSAGE = "Planeta com o ID %d não encontrado.";
+    private static final String MESSAGE_IDS = "Nenhum planeta encontrado com os IDs %s.";
 
     public PlanetNaoEncontradaException(Long idPlanet) {
         super(String.format(MESSAGE, idPlanet));
     }
+
+    public PlanetNaoEncontradaException(Collection<Long> idsPlanets) {
+        super(String.format(MESSAGE_IDS, idsPlanets));
+    }
 }
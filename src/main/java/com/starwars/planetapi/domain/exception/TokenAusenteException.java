@@ -0,0 +1,10 @@
+package com.starwars.planetapi.domain.exception;
+
+public class TokenAusenteException extends RuntimeException {
+
+    private static final String MESSAGE = "Informe ao menos um token em terrain ou climate.";
+
+    public TokenAusenteException() {
+        super(MESSAGE);
+    }
+}
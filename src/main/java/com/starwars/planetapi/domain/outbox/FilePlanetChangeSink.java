@@ -0,0 +1,39 @@
+package com.starwars.planetapi.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Acrescenta cada alteração como uma linha JSON (NDJSON) em {@code planet.outbox.file}
+ * ({@code planet.outbox.sink=file}).
+ */
+public class FilePlanetChangeSink implements PlanetChangeSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FilePlanetChangeSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<PlanetChange> changes) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (PlanetChange change : changes) {
+                writer.write(objectMapper.writeValueAsString(change));
+                writer.write('\n');
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.starwars.planetapi.domain.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Guarda as alterações entregues em memória ({@code planet.outbox.sink=memory}), para testes e desenvolvimento.
+ */
+public class InMemoryPlanetChangeSink implements PlanetChangeSink {
+
+    private final List<PlanetChange> changes = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<PlanetChange> batch) {
+        changes.addAll(batch);
+    }
+
+    public List<PlanetChange> changes() {
+        return List.copyOf(changes);
+    }
+}
@@ -0,0 +1,14 @@
+package com.starwars.planetapi.domain.outbox;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Alteração registrada no outbox. {@code seq} cresce a cada alteração; remoções não trazem os dados do planeta.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlanetChange(long seq, Type type, Long planetId, String name, String climate, String terrain, Instant occurredAt) {
+
+    public enum Type { CREATED, UPDATED, REMOVED }
+}
@@ -0,0 +1,10 @@
+package com.starwars.planetapi.domain.outbox;
+
+import java.util.List;
+
+/**
+ * Trecho do feed de alterações. {@code next} sempre vem preenchido: é o cursor para a próxima consulta, mesmo
+ * quando ainda não há nada novo.
+ */
+public record PlanetChangePage(List<PlanetChange> changes, String next) {
+}
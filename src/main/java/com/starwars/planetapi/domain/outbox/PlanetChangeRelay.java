@@ -0,0 +1,92 @@
+package com.starwars.planetapi.domain.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrega em segundo plano as alterações do {@link PlanetOutbox} ao {@link PlanetChangeSink}, em lotes de até
+ * {@code batchSize}, a cada {@code interval}. Cada lote roda numa transação que trava a posição do relay: com várias
+ * instâncias da aplicação, só uma entrega por vez e nenhuma alteração é pulada.
+ */
+public class PlanetChangeRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanetChangeRelay.class);
+
+    private final PlanetOutbox outbox;
+    private final PlanetChangeSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public PlanetChangeRelay(PlanetOutbox outbox, PlanetChangeSink sink, TransactionTemplate transactionTemplate,
+                             int batchSize, Duration interval) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.interval = interval;
+    }
+
+    /**
+     * Entrega um lote e devolve quantas alterações foram entregues. Se o sink falhar, a posição não anda.
+     */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<PlanetChange> changes = outbox.since(outbox.lockRelayPosition(), batchSize);
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            sink.publish(changes);
+            outbox.moveRelayPosition(changes.getLast().seq());
+            return changes.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    private void relayPending() {
+        try {
+            // Lote cheio indica que pode haver mais: continua sem esperar o próximo intervalo.
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Falha ao entregar alterações de planetas; nova tentativa em {}", interval, ex);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("planet-outbox-relay").daemon().factory());
+            scheduler.scheduleWithFixedDelay(this::relayPending, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(interval.toMillis() + 5000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.starwars.planetapi.domain.outbox;
+
+import java.util.List;
+
+/**
+ * Destino das alterações entregues pelo {@link PlanetChangeRelay}. A entrega é pelo menos uma vez: um lote pode
+ * ser repetido se a gravação da posição do relay falhar depois do {@link #publish}, e quem consome deve descartar
+ * {@code seq} já vistos.
+ */
+@FunctionalInterface
+public interface PlanetChangeSink {
+
+    /**
+     * Recebe um lote em ordem de {@code seq}. Uma exceção faz o relay tentar o mesmo lote de novo depois.
+     */
+    void publish(List<PlanetChange> changes);
+}
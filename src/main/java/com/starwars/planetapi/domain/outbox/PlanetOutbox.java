@@ -0,0 +1,155 @@
+package com.starwars.planetapi.domain.outbox;
+
+import com.starwars.planetapi.domain.Planet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbox transacional das alterações de planetas (tabela {@code planet_changes}). As gravações exigem uma
+ * transação aberta, a mesma que altera {@code planets}, então uma alteração desfeita não deixa evento para trás.
+ * <p>
+ * O {@code seq} vem do auto incremento, que é reservado no insert e não no commit: uma transação mais lenta pode
+ * tornar visível um {@code seq} menor depois de um maior. Por isso {@link #since} para no primeiro buraco da
+ * sequência, a não ser que a alteração seguinte tenha mais de {@code planet.outbox.settle-time}; aí o buraco é
+ * de uma transação desfeita e fica para trás.
+ */
+@Repository
+public class PlanetOutbox {
+
+    private static final String COLUMNS = "planet_id, change_type, name, climate, terrain, occurred_at";
+    private static final String INSERT = "INSERT INTO planet_changes (" + COLUMNS + ") "
+        + "VALUES (:planetId, :type, :name, :climate, :terrain, :occurredAt)";
+    private static final String INSERT_CREATED_BY_NAME = "INSERT INTO planet_changes (" + COLUMNS + ") "
+        + "SELECT id, 'CREATED', name, climate, terrain, :occurredAt FROM planets WHERE name IN (:names) ORDER BY id";
+    private static final String INSERT_REMOVED_BY_ID = "INSERT INTO planet_changes (" + COLUMNS + ") "
+        + "SELECT id, 'REMOVED', NULL, NULL, NULL, :occurredAt FROM planets WHERE id IN (:ids) ORDER BY id";
+    private static final String SELECT_SINCE = "SELECT seq, " + COLUMNS + " FROM planet_changes "
+        + "WHERE seq > :seq ORDER BY seq LIMIT :limit";
+
+    private static final RowMapper<PlanetChange> ROW_MAPPER = (rs, rowNum) -> new PlanetChange(
+        rs.getLong("seq"),
+        PlanetChange.Type.valueOf(rs.getString("change_type")),
+        rs.getLong("planet_id"),
+        rs.getString("name"),
+        rs.getString("climate"),
+        rs.getString("terrain"),
+        rs.getTimestamp("occurred_at").toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Duration settleTime;
+    private final Clock clock;
+
+    @Autowired
+    public PlanetOutbox(NamedParameterJdbcTemplate jdbcTemplate, @Value("${planet.outbox.settle-time:PT5S}") Duration settleTime) {
+        this(jdbcTemplate, settleTime, Clock.systemUTC());
+    }
+
+    PlanetOutbox(NamedParameterJdbcTemplate jdbcTemplate, Duration settleTime, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settleTime = settleTime;
+        this.clock = clock;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Planet planet) {
+        record(PlanetChange.Type.CREATED, planet);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(Planet planet) {
+        record(PlanetChange.Type.UPDATED, planet);
+    }
+
+    /**
+     * Registra a criação dos planetas com esses nomes, lendo id e dados da própria tabela {@code planets}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordCreated(Collection<String> names) {
+        if (names.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(INSERT_CREATED_BY_NAME, Map.of("names", names, "occurredAt", now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Long id) {
+        jdbcTemplate.update(INSERT, new MapSqlParameterSource()
+            .addValue("planetId", id)
+            .addValue("type", PlanetChange.Type.REMOVED.name())
+            .addValue("name", null)
+            .addValue("climate", null)
+            .addValue("terrain", null)
+            .addValue("occurredAt", now()));
+    }
+
+    /**
+     * Registra a remoção só dos ids que existem; deve rodar antes do {@code DELETE}, na mesma transação.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordRemoved(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(INSERT_REMOVED_BY_ID, Map.of("ids", ids, "occurredAt", now()));
+    }
+
+    /**
+     * Até {@code limit} alterações depois de {@code seq}, em ordem, parando no primeiro buraco recente da sequência.
+     */
+    public List<PlanetChange> since(long seq, int limit) {
+        List<PlanetChange> rows = jdbcTemplate.query(SELECT_SINCE, Map.of("seq", seq, "limit", limit), ROW_MAPPER);
+        Instant settled = clock.instant().minus(settleTime);
+        List<PlanetChange> visible = new ArrayList<>(rows.size());
+        long expected = seq + 1;
+        for (PlanetChange change : rows) {
+            if (change.seq() != expected && change.occurredAt().isAfter(settled)) {
+                break;
+            }
+            visible.add(change);
+            expected = change.seq() + 1;
+        }
+        return visible;
+    }
+
+    /**
+     * Lê e trava a posição do relay até o fim da transação, para só um relay entregar cada lote.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long lockRelayPosition() {
+        return jdbcTemplate.queryForObject("SELECT last_seq FROM planet_change_relay WHERE id = 1 FOR UPDATE", Map.of(), Long.class);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moveRelayPosition(long seq) {
+        jdbcTemplate.update("UPDATE planet_change_relay SET last_seq = :seq WHERE id = 1", Map.of("seq", seq));
+    }
+
+    private void record(PlanetChange.Type type, Planet planet) {
+        jdbcTemplate.update(INSERT, new MapSqlParameterSource()
+            .addValue("planetId", planet.getId())
+            .addValue("type", type.name())
+            .addValue("name", planet.getName())
+            .addValue("climate", planet.getClimate())
+            .addValue("terrain", planet.getTerrain())
+            .addValue("occurredAt", now()));
+    }
+
+    private Timestamp now() {
+        return Timestamp.from(clock.instant());
+    }
+}
@@ -0,0 +1,99 @@
+package com.starwars.planetapi.web;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codificações de {@code Content-Encoding} das listagens pré-comprimidas. Quando o cliente aceita as duas com o
+ * mesmo peso, vale a ordem das constantes: no nível padrão, zstd gera cerca de metade dos bytes do gzip.
+ */
+public enum ContentCoding {
+
+    ZSTD("zstd") {
+        @Override
+        public OutputStream compress(OutputStream out, int level) throws IOException {
+            return new ZstdOutputStream(out, level);
+        }
+    },
+    GZIP("gzip") {
+        @Override
+        public OutputStream compress(OutputStream out, int level) throws IOException {
+            return new GZIPOutputStream(out) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    };
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Envolve {@code out} num fluxo que comprime com o nível dado (1 a 9 no gzip, 1 a 22 no zstd).
+     */
+    public abstract OutputStream compress(OutputStream out, int level) throws IOException;
+
+    /**
+     * Escolhe a codificação pelo {@code Accept-Encoding}, respeitando os pesos ({@code q}) e o {@code *}.
+     * Vazio se o cabeçalho faltar ou não aceitar nenhuma das duas.
+     */
+    public static Optional<ContentCoding> negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return Optional.empty();
+        }
+        double[] weights = new double[values().length];
+        boolean[] listed = new boolean[values().length];
+        double wildcard = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double weight = weight(parts);
+            if (name.equals("*")) {
+                wildcard = weight;
+            }
+            for (ContentCoding coding : values()) {
+                if (coding.token.equals(name)) {
+                    weights[coding.ordinal()] = weight;
+                    listed[coding.ordinal()] = true;
+                }
+            }
+        }
+        ContentCoding best = null;
+        double bestWeight = 0;
+        for (ContentCoding coding : values()) {
+            double weight = listed[coding.ordinal()] ? weights[coding.ordinal()] : wildcard;
+            if (weight > bestWeight) {
+                best = coding;
+                bestWeight = weight;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static double weight(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
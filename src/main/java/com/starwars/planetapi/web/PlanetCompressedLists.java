@@ -0,0 +1,163 @@
+package com.starwars.planetapi.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Corpos JSON de {@code GET /planets} já comprimidos, para as listagens mais pedidas não serem serializadas nem
+ * comprimidas de novo a cada requisição. A chave inclui o {@code ETag} da listagem, então uma alteração gera uma
+ * chave nova e um corpo antigo nunca é servido; criações, atualizações e remoções também esvaziam o cache para
+ * liberar a memória. O cache é limitado pelo total de bytes ({@code planet.compression.cache.maximum-size}) e
+ * publicado como {@code cache.*{cache=planets.lists}}.
+ * <p>
+ * Corpos menores que {@code server.compression.min-response-size} ficam sem compressão, como faria o Tomcat.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PlanetCompressedLists implements MeterBinder {
+
+    private static final Type VIEW_LIST = new TypeReference<List<PlanetView>>() {}.getType();
+
+    private final PlanetJsonConverter jsonConverter;
+    private final long minSize;
+    private final int gzipLevel;
+    private final int zstdLevel;
+    private final AsyncCache<Key, Body> bodies;
+
+    public PlanetCompressedLists(PlanetJsonConverter jsonConverter,
+                                 @Value("${server.compression.min-response-size:2KB}") DataSize minSize,
+                                 @Value("${planet.compression.cache.maximum-size:32MB}") DataSize maximumSize,
+                                 @Value("${planet.compression.gzip-level:6}") int gzipLevel,
+                                 @Value("${planet.compression.zstd-level:3}") int zstdLevel) {
+        this.jsonConverter = jsonConverter;
+        this.minSize = minSize.toBytes();
+        this.gzipLevel = gzipLevel;
+        this.zstdLevel = zstdLevel;
+        this.bodies = Caffeine.newBuilder()
+            .maximumWeight(maximumSize.toBytes())
+            .weigher((Key key, Body body) -> body.bytes().length)
+            .recordStats()
+            .buildAsync();
+    }
+
+    /**
+     * Devolve o corpo da listagem na codificação pedida, lendo os planetas de {@code planets} só se ele não
+     * estiver no cache. Chamadas simultâneas para a mesma chave esperam uma única compressão, feita fora do lock
+     * do mapa (como no {@code PlanetCache}) para a virtual thread não ficar presa durante a consulta.
+     */
+    public Body get(Key key, Supplier<List<PlanetView>> planets) {
+        CompletableFuture<Body> pending = new CompletableFuture<>();
+        CompletableFuture<Body> current = bodies.get(key, (k, executor) -> pending);
+        if (current == pending) {
+            try {
+                pending.complete(encode(key.coding(), planets.get()));
+            } catch (RuntimeException ex) {
+                pending.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return current.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Depois do commit, como no PlanetJsonConverter, para uma leitura concorrente não guardar de novo o corpo antigo.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(PlanetCreatedEvent event) {
+        bodies.synchronous().invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUpdated(PlanetUpdatedEvent event) {
+        bodies.synchronous().invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRemoved(PlanetRemovedEvent event) {
+        bodies.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return bodies.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, bodies.synchronous(), "planets.lists");
+    }
+
+    private Body encode(ContentCoding coding, List<PlanetView> planets) {
+        try {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            jsonConverter.write(planets, VIEW_LIST, MediaType.APPLICATION_JSON, new Output(json));
+            if (json.size() < minSize) {
+                return new Body(json.toByteArray(), null);
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.size() / 4);
+            try (OutputStream out = coding.compress(compressed, coding == ContentCoding.GZIP ? gzipLevel : zstdLevel)) {
+                json.writeTo(out);
+            }
+            return new Body(compressed.toByteArray(), coding);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Uma listagem: filtros e campos como vieram na requisição, o {@code ETag} dela e a codificação pedida.
+     */
+    public record Key(String terrain, String climate, Set<String> fields, String tag, ContentCoding coding) {
+    }
+
+    /**
+     * Corpo pronto para a resposta; {@code coding} é nulo se ficou abaixo do tamanho mínimo e não foi comprimido.
+     */
+    public record Body(byte[] bytes, ContentCoding coding) {
+    }
+
+    private record Output(OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.starwars.planetapi.web;
+
+import com.netflix.concurrency.limits.Limiter;
+import com.netflix.concurrency.limits.limiter.AbstractLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita as requisições simultâneas ao {@link PlanetController}, com um limite para leituras ({@code GET} e
+ * {@code HEAD}) e outro para escritas. Os limites são adaptativos: acompanham a latência observada, crescem
+ * enquanto ela fica perto da mínima e caem quando ela sobe, que é quando o banco começou a enfileirar. A
+ * requisição que passa do limite recebe {@code 503} com {@code Retry-After} na hora, em vez de esperar numa
+ * fila do Tomcat ou do pool de conexões.
+ * <p>
+ * Respostas {@code 503} do próprio controller (pool esgotado, espera esgotada) contam como descarte, o que
+ * também reduz o limite. Requisições assíncronas ({@code /planets/stream}) só liberam a vaga ao terminar.
+ */
+public class PlanetConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String MESSAGE = "Servidor sobrecarregado, tente novamente em instantes.";
+
+    private final AbstractLimiter<Void> reads;
+    private final AbstractLimiter<Void> writes;
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    public PlanetConcurrencyLimitFilter(AbstractLimiter<Void> reads, AbstractLimiter<Void> writes, MeterRegistry registry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.rejectedReads = register(reads, "read", registry);
+        this.rejectedWrites = register(writes, "write", registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        Optional<Limiter.Listener> acquired = (read ? reads : writes).acquire(null);
+        if (acquired.isEmpty()) {
+            (read ? rejectedReads : rejectedWrites).increment();
+            reject(response);
+            return;
+        }
+        Limiter.Listener listener = acquired.get();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            listener.onIgnore();
+            throw ex;
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new ReleaseOnComplete(listener, response));
+        } else {
+            release(listener, response.getStatus());
+        }
+    }
+
+    private static void release(Limiter.Listener listener, int status) {
+        if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            listener.onDropped();
+        } else {
+            listener.onSuccess();
+        }
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(MESSAGE);
+    }
+
+    private static Counter register(AbstractLimiter<Void> limiter, String kind, MeterRegistry registry) {
+        Gauge.builder("planet.http.concurrency.limit", limiter, AbstractLimiter::getLimit)
+            .description("Limite atual de requisições simultâneas")
+            .tag("kind", kind)
+            .register(registry);
+        Gauge.builder("planet.http.concurrency.inflight", limiter, AbstractLimiter::getInflight)
+            .description("Requisições em andamento")
+            .tag("kind", kind)
+            .register(registry);
+        return Counter.builder("planet.http.concurrency.rejected")
+            .description("Requisições recusadas com 503 por passar do limite")
+            .tag("kind", kind)
+            .register(registry);
+    }
+
+    /**
+     * Depois de {@code onTimeout} ou {@code onError} o container ainda chama {@code onComplete}; só o primeiro
+     * evento libera a vaga.
+     */
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final Limiter.Listener listener;
+        private final HttpServletResponse response;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnComplete(Limiter.Listener listener, HttpServletResponse response) {
+            this.listener = listener;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                release(listener, response.getStatus());
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                listener.onDropped();
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                listener.onIgnore();
+            }
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Um novo ciclo assíncrono precisa registrar o listener de novo.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -1,46 +1,243 @@
 package com.starwars.planetapi.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetBatchResult;
+import com.starwars.planetapi.domain.PlanetFacets;
+import com.starwars.planetapi.domain.PlanetNameMatch;
+import com.starwars.planetapi.domain.PlanetPage;
 import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.PlanetUpsert;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.TokenMatch;
+import com.starwars.planetapi.domain.exception.LinhaInvalidaException;
+import com.starwars.planetapi.domain.outbox.PlanetChangePage;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/planets")
 public class PlanetController {
 
+    /** Formato binário do Jackson; CBOR e Smile usam os conversores que o Spring registra ao achar o módulo. */
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /** Formatos de {@code Planet} e das listas de planetas, na ordem usada quando o {@code Accept} empata. */
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+        MediaType.parseMediaType(APPLICATION_SMILE_VALUE), PlanetProtobufConverter.APPLICATION_PROTOBUF);
+    private static final List<String> FORMAT_TAGS = List.of("", "-cbor", "-smile", "-protobuf");
+
     @Autowired
     private PlanetService planetService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlanetCompressedLists compressedLists;
+
     @PostMapping
-    public ResponseEntity<Planet> create(@RequestBody @Valid Planet planet) {
+    public ResponseEntity<Planet> create(@RequestBody @Valid Planet planet, WebRequest request) throws HttpMediaTypeNotAcceptableException {
+        MediaType format = negotiate(request.getHeader(HttpHeaders.ACCEPT));
         planet = planetService.create(planet);
-        return ResponseEntity.status(HttpStatus.CREATED).body(planet);
+        return validators(ResponseEntity.status(HttpStatus.CREATED), planet, format).body(planet);
+    }
+
+    /**
+     * Cria ou atualiza o planeta pelo nome: {@code 201} se criou, {@code 200} se já existia. Repetir a requisição
+     * devolve o mesmo planeta sem alterá-lo.
+     */
+    @PutMapping("/name/{name}")
+    public ResponseEntity<Planet> upsertByName(@PathVariable String name, @RequestBody Planet planet, WebRequest request)
+        throws HttpMediaTypeNotAcceptableException {
+        MediaType format = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        PlanetUpsert upsert = planetService.upsert(name, planet);
+        HttpStatus status = upsert.status() == PlanetUpsert.Status.CREATED ? HttpStatus.CREATED : HttpStatus.OK;
+        return validators(ResponseEntity.status(status), upsert.planet(), format).body(upsert.planet());
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE, PlanetProtobufConverter.APPLICATION_PROTOBUF_VALUE})
+    public ResponseEntity<List<PlanetBatchResult>> createBatch(@RequestBody List<Planet> planets) {
+        return ResponseEntity.ok(planetService.createAll(planets.iterator()));
+    }
+
+    /**
+     * Lê uma linha por vez: o corpo não é carregado inteiro antes de começar a gravar. Uma linha malformada encerra a
+     * leitura; as anteriores são gravadas e a resposta é {@code 400} com o número da linha e o que já foi criado.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<PlanetBatchResult>> createBatchNdjson(InputStream body) throws IOException {
+        try (MappingIterator<Planet> lines = objectMapper.readerFor(Planet.class).readValues(body)) {
+            NdjsonPlanets planets = new NdjsonPlanets(lines);
+            List<PlanetBatchResult> results = planetService.createAll(planets);
+            if (planets.error != null) {
+                JsonLocation location = planets.error.getLocation();
+                throw new LinhaInvalidaException(location == null ? 0 : location.getLineNr(),
+                    planets.error.getOriginalMessage(), results);
+            }
+            return ResponseEntity.ok(results);
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Planet> findById(@PathVariable Long id) {
-        return planetService.get(id)
-            .map(ResponseEntity::ok)
-            .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Planet> findById(@PathVariable Long id, WebRequest request) throws HttpMediaTypeNotAcceptableException {
+        Optional<Planet> planet = planetService.get(id);
+        if (planet.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(planet.get(), request);
     }
 
     @GetMapping("/name/{name}")
-    public ResponseEntity<Planet> findByName(@PathVariable String name) {
-        return planetService.findByName(name)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Planet> findByName(@PathVariable String name, WebRequest request) throws HttpMediaTypeNotAcceptableException {
+        Optional<Planet> planet = planetService.findByName(name);
+        if (planet.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(planet.get(), request);
     }
 
+    /**
+     * Em JSON com {@code Accept-Encoding} de gzip ou zstd, o corpo sai do {@link PlanetCompressedLists} já
+     * comprimido e é escrito direto na resposta; nos demais casos a lista é serializada pelo conversor do formato
+     * pedido. A lista não tem limite de tamanho; tabelas grandes são lidas por {@code /page} ou {@code /stream}.
+     */
     @GetMapping
-    public ResponseEntity<List<Planet>> findByFilter(@RequestParam(required = false) String terrain, @RequestParam(required = false) String climate) {
-        List<Planet> planets = planetService.list(terrain, climate);
-        return ResponseEntity.ok(planets);
+    public ResponseEntity<List<PlanetView>> findByFilter(@RequestParam(required = false) String terrain, @RequestParam(required = false) String climate,
+                                                         @RequestParam(required = false) List<String> fields, WebRequest request,
+                                                         HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        Set<String> selected = PlanetView.select(fields);
+        // Só ETag: remoções não avançam a data de modificação, então If-Modified-Since não basta para listas.
+        // Cada seleção de campos e cada formato é uma representação diferente e tem o próprio ETag.
+        MediaType format = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        String tag = planetService.listVersion(terrain, climate).tag();
+        if (selected.size() < PlanetView.FIELDS.size()) {
+            tag += ";" + String.join(",", selected);
+        }
+        tag += FORMAT_TAGS.get(FORMATS.indexOf(format));
+        // Vale também para o 304: um cache compartilhado guarda uma cópia por Accept e Accept-Encoding.
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Optional<ContentCoding> coding = ContentCoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (coding.isEmpty() || !MediaType.APPLICATION_JSON.equals(format)) {
+            if (request.checkNotModified(strongEtag(tag))) {
+                return null;
+            }
+            return ResponseEntity.ok().contentType(format).body(planetService.list(terrain, climate, selected));
+        }
+        // O corpo comprimido é outra representação e precisa de outro ETag forte.
+        String encodedTag = tag + "-" + coding.get().token();
+        if (request.checkNotModified(strongEtag(encodedTag))) {
+            return null;
+        }
+        PlanetCompressedLists.Body body = compressedLists.get(
+            new PlanetCompressedLists.Key(terrain, climate, selected, encodedTag, coding.get()),
+            () -> planetService.list(terrain, climate, selected));
+        // Escrito direto na resposta: devolver byte[] apagaria o tipo List<PlanetView> de que os conversores
+        // binários precisam no outro caminho. O ETag já foi posto por checkNotModified.
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (body.coding() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, body.coding().token());
+        }
+        response.setContentLength(body.bytes().length);
+        response.getOutputStream().write(body.bytes());
+        return null;
+    }
+
+    @GetMapping("/count")
+    public ResponseEntity<Long> count(@RequestParam(required = false) String terrain, @RequestParam(required = false) String climate) {
+        return ResponseEntity.ok(planetService.count(terrain, climate));
+    }
+
+    /**
+     * Quantos planetas da listagem filtrada têm cada token de terrain e climate, sem baixar a lista.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<PlanetFacets> facets(@RequestParam(required = false) String terrain, @RequestParam(required = false) String climate) {
+        return ResponseEntity.ok(planetService.facets(terrain, climate));
+    }
+
+    @GetMapping("/contains")
+    public ResponseEntity<List<Planet>> findByTokens(@RequestParam(required = false) String terrain,
+                                                     @RequestParam(required = false) String climate,
+                                                     @RequestParam(defaultValue = "ALL") TokenMatch match) {
+        return ResponseEntity.ok(planetService.listByTokens(terrain, climate, match));
+    }
+
+    /**
+     * Busca por nome com prefixo e erros de digitação, ordenada por relevância.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PlanetNameMatch>> search(@RequestParam String q,
+                                                        @RequestParam(defaultValue = "" + PlanetService.DEFAULT_SEARCH_SIZE) int limit) {
+        return ResponseEntity.ok(planetService.search(q, limit));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<PlanetPage> findPage(@RequestParam(required = false) String terrain,
+                                               @RequestParam(required = false) String climate,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "" + PlanetService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(planetService.page(terrain, climate, cursor, limit));
+    }
+
+    /**
+     * Feed de alterações para sincronização incremental: o cliente guarda {@code next} e o envia como
+     * {@code since} na próxima consulta.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<PlanetChangePage> findChanges(@RequestParam(required = false) String since,
+                                                        @RequestParam(defaultValue = "" + PlanetService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(planetService.changes(since, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamNdjson(@RequestParam(required = false) String terrain, @RequestParam(required = false) String climate) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                planetService.stream(terrain, climate, planet -> writePlanet(generator, planet, "\n"));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamJsonArray(@RequestParam(required = false) String terrain, @RequestParam(required = false) String climate) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                planetService.stream(terrain, climate, planet -> writePlanet(generator, planet, ""));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -49,4 +246,149 @@ public class PlanetController {
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Void> deleteByIds(@RequestParam List<Long> ids) {
+        planetService.removeAll(ids);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Responde o planeta com ETag e Last-Modified, ou {@code 304} sem corpo se o cliente já tem essa versão nesse
+     * formato. O ETag inclui o formato, e o {@code Vary: Accept} separa as cópias nos caches compartilhados.
+     */
+    private static ResponseEntity<Planet> conditional(Planet planet, WebRequest request) throws HttpMediaTypeNotAcceptableException {
+        MediaType format = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        if (planet.getVersion() != null && planet.getLastModified() != null
+            && request.checkNotModified(planetTag(planet, format), planet.getLastModified().toEpochMilli())) {
+            // O 304 leva o mesmo Vary da resposta completa.
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return validators(ResponseEntity.ok(), planet, format).body(planet);
+    }
+
+    /**
+     * ETag e Last-Modified da versão gravada no formato da resposta, para o cliente já poder fazer requisições
+     * condicionais.
+     */
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder response, Planet planet, MediaType format) {
+        response.contentType(format).varyBy(HttpHeaders.ACCEPT);
+        if (planet.getVersion() == null || planet.getLastModified() == null) {
+            return response;
+        }
+        return response.eTag(planetTag(planet, format)).lastModified(planet.getLastModified());
+    }
+
+    private static String planetTag(Planet planet, MediaType format) {
+        return strongEtag(planet.getId() + "-" + planet.getVersion() + FORMAT_TAGS.get(FORMATS.indexOf(format)));
+    }
+
+    /**
+     * Formato em que a resposta sai para o {@code Accept}, entre os de {@link #FORMATS}: vale o peso da faixa mais
+     * específica que inclui cada formato; no empate, ganha a faixa mais específica, depois a que vem antes no
+     * cabeçalho e por fim a ordem de {@link #FORMATS}. Sem {@code Accept}, JSON. O formato escolhido é fixado na
+     * resposta, então o corpo sai sempre no formato do ETag.
+     *
+     * @throws HttpMediaTypeNotAcceptableException se o {@code Accept} for inválido ou não aceitar nenhum formato
+     */
+    static MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> ranges;
+        try {
+            ranges = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            throw new HttpMediaTypeNotAcceptableException(ex.getMessage());
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        int bestSpecificity = -1;
+        int bestPosition = Integer.MAX_VALUE;
+        for (MediaType format : FORMATS) {
+            MediaType range = null;
+            int position = -1;
+            for (int i = 0; i < ranges.size(); i++) {
+                MediaType candidate = ranges.get(i);
+                if (candidate.includes(format) && (range == null || specificity(candidate) > specificity(range))) {
+                    range = candidate;
+                    position = i;
+                }
+            }
+            if (range == null || range.getQualityValue() == 0) {
+                continue;
+            }
+            double quality = range.getQualityValue();
+            int specificity = specificity(range);
+            if (quality > bestQuality
+                || (quality == bestQuality && (specificity > bestSpecificity
+                    || (specificity == bestSpecificity && position < bestPosition)))) {
+                best = format;
+                bestQuality = quality;
+                bestSpecificity = specificity;
+                bestPosition = position;
+            }
+        }
+        if (best == null) {
+            throw new HttpMediaTypeNotAcceptableException(FORMATS);
+        }
+        return best;
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private static String strongEtag(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+    private static void writePlanet(JsonGenerator generator, Planet planet, String suffix) {
+        try {
+            generator.writeObject(planet);
+            generator.writeRaw(suffix);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+
+    /**
+     * Planetas de um corpo NDJSON que terminam na primeira linha malformada, guardando o erro dela.
+     */
+    private static final class NdjsonPlanets implements Iterator<Planet> {
+
+        private final MappingIterator<Planet> lines;
+        private Planet next;
+        private JsonProcessingException error;
+
+        NdjsonPlanets(MappingIterator<Planet> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && error == null) {
+                try {
+                    if (lines.hasNextValue()) {
+                        next = lines.nextValue();
+                    }
+                } catch (JsonProcessingException ex) {
+                    error = ex;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Planet next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Planet planet = next;
+            next = null;
+            return planet;
+        }
+    }
 }
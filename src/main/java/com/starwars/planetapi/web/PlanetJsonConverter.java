@@ -0,0 +1,155 @@
+package com.starwars.planetapi.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Escreve {@link Planet}, {@code List<Planet>} e {@code List<PlanetView>} em JSON a partir de bytes UTF-8 já
+ * codificados por planeta, sem passar pelo Jackson a cada requisição; uma lista é a concatenação dos fragmentos.
+ * <p>
+ * Cada fragmento guarda os valores de que veio e só é reusado se o planeta a escrever for igual, então uma escrita
+ * ainda não invalidada nunca gera JSON desatualizado; a invalidação nas escritas só libera a memória antes. Planetas
+ * com campo nulo e projeções parciais ({@code fields=}) continuam pelo Jackson. As estatísticas são publicadas como
+ * {@code cache.*{cache=planets.json}}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+// Primeiro da cadeia: sem Accept (ou com */*), a resposta continua em JSON e não no primeiro formato binário.
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PlanetJsonConverter extends AbstractGenericHttpMessageConverter<Object> implements MeterBinder {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Fragment> fragments;
+
+    public PlanetJsonConverter(ObjectMapper objectMapper, @Value("${planet.json.maximum-size:10000}") long maximumSize) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+        this.fragments = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+    }
+
+    // Depois do commit: invalidado antes, o fragmento poderia ser refeito com o JSON anterior à escrita.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUpdated(PlanetUpdatedEvent event) {
+        fragments.invalidate(event.planet().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRemoved(PlanetRemovedEvent event) {
+        fragments.invalidate(event.id());
+    }
+
+    public CacheStats stats() {
+        return fragments.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, fragments, "planets.json");
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Só escreve, e só pelo tipo genérico da resposta (ver canWrite).
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // O Spring MVC lista os formatos possíveis pela classe do valor; o tipo dos elementos é conferido em canWrite.
+        return clazz == Planet.class || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type != null && isPlanetType(ResolvableType.forType(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream body = outputMessage.getBody();
+        if (!(value instanceof List<?> list)) {
+            body.write(encode(value));
+            return;
+        }
+        body.write('[');
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.write(encode(list.get(i)));
+        }
+        body.write(']');
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        // canRead é sempre falso; a leitura de JSON fica com o conversor do Jackson.
+        throw new HttpMessageNotReadableException("PlanetJsonConverter só escreve respostas.", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        return read(clazz, null, inputMessage);
+    }
+
+    private byte[] encode(Object value) throws IOException {
+        PlanetView view = value instanceof Planet planet ? PlanetView.of(planet) : (PlanetView) value;
+        if (view.id() == null || view.name() == null || view.climate() == null || view.terrain() == null) {
+            return objectMapper.writeValueAsBytes(value);
+        }
+        Fragment fragment = fragments.getIfPresent(view.id());
+        if (fragment == null || !fragment.view().equals(view)) {
+            fragment = new Fragment(view, objectMapper.writeValueAsBytes(view));
+            fragments.put(view.id(), fragment);
+        }
+        return fragment.json();
+    }
+
+    private static boolean isPlanetType(ResolvableType type) {
+        if (type.toClass() == Planet.class) {
+            return true;
+        }
+        Class<?> element = type.getGeneric(0).toClass();
+        return type.toClass() == List.class && (element == Planet.class || element == PlanetView.class);
+    }
+
+    /**
+     * JSON de um planeta completo; {@link PlanetView} com todos os campos serializa igual a {@link Planet}.
+     */
+    private record Fragment(PlanetView view, byte[] json) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.starwars.planetapi.web;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetView;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lê e escreve {@link Planet}, {@code List<Planet>} e {@code List<PlanetView>} como {@code application/x-protobuf},
+ * no formato das mensagens {@code Planet} e {@code PlanetList} de {@code src/main/proto/planet.proto}. O codec é
+ * escrito à mão sobre {@link CodedOutputStream} e {@link CodedInputStream}, sem classes geradas; quem consome gera
+ * as suas a partir do mesmo {@code .proto}. Campos nulos não são escritos e campos ausentes são lidos como nulos.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PlanetProtobufConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int CLIMATE = 3;
+    private static final int TERRAIN = 4;
+    private static final int PLANETS = 1;
+
+    public PlanetProtobufConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Listas só pelo tipo genérico (ver canRead e canWrite).
+        return clazz == Planet.class;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // O Spring MVC lista os formatos possíveis pela classe do valor; o tipo dos elementos é conferido em canWrite.
+        return clazz == Planet.class || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        return (resolved.toClass() == Planet.class || isListOf(resolved, Planet.class)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (type == null) {
+            return canWrite(clazz, mediaType);
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        return (resolved.toClass() == Planet.class || isListOf(resolved, Planet.class) || isListOf(resolved, PlanetView.class))
+            && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(inputMessage.getBody());
+        if (ResolvableType.forType(type).toClass() == Planet.class) {
+            return readPlanet(input);
+        }
+        List<Planet> planets = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ((PLANETS << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                planets.add(readPlanet(input));
+                input.popLimit(limit);
+            } else {
+                skip(input, tag);
+            }
+        }
+        return planets;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (value instanceof List<?> list) {
+            for (Object element : list) {
+                PlanetView view = toView(element);
+                output.writeTag(PLANETS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(size(view));
+                writePlanet(output, view);
+            }
+        } else {
+            writePlanet(output, toView(value));
+        }
+        output.flush();
+    }
+
+    private static Planet readPlanet(CodedInputStream input) throws IOException {
+        Planet planet = new Planet();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag) {
+                case (ID << 3) | WireFormat.WIRETYPE_VARINT -> planet.setId(input.readInt64());
+                case (NAME << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED -> planet.setName(input.readStringRequireUtf8());
+                case (CLIMATE << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED -> planet.setClimate(input.readStringRequireUtf8());
+                case (TERRAIN << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED -> planet.setTerrain(input.readStringRequireUtf8());
+                default -> skip(input, tag);
+            }
+        }
+        return planet;
+    }
+
+    private static void skip(CodedInputStream input, int tag) throws IOException {
+        if (!input.skipField(tag)) {
+            throw new InvalidProtocolBufferException("Fim de grupo sem o início correspondente.");
+        }
+    }
+
+    private static void writePlanet(CodedOutputStream output, PlanetView view) throws IOException {
+        if (view.id() != null) {
+            output.writeInt64(ID, view.id());
+        }
+        if (view.name() != null) {
+            output.writeString(NAME, view.name());
+        }
+        if (view.climate() != null) {
+            output.writeString(CLIMATE, view.climate());
+        }
+        if (view.terrain() != null) {
+            output.writeString(TERRAIN, view.terrain());
+        }
+    }
+
+    private static int size(PlanetView view) {
+        int size = 0;
+        if (view.id() != null) {
+            size += CodedOutputStream.computeInt64Size(ID, view.id());
+        }
+        if (view.name() != null) {
+            size += CodedOutputStream.computeStringSize(NAME, view.name());
+        }
+        if (view.climate() != null) {
+            size += CodedOutputStream.computeStringSize(CLIMATE, view.climate());
+        }
+        if (view.terrain() != null) {
+            size += CodedOutputStream.computeStringSize(TERRAIN, view.terrain());
+        }
+        return size;
+    }
+
+    private static PlanetView toView(Object value) {
+        return value instanceof Planet planet ? PlanetView.of(planet) : (PlanetView) value;
+    }
+
+    private static boolean isListOf(ResolvableType type, Class<?> element) {
+        return type.toClass() == List.class && type.getGeneric(0).toClass() == element;
+    }
+}
@@ -0,0 +1,61 @@
+package com.starwars.planetapi.web;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.ReactivePlanetService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Endpoints do profile {@code reactive}, com as mesmas rotas do {@link PlanetController}. As rotas e o
+ * tratamento de erros ficam em {@link ReactivePlanetRoutes}.
+ */
+@Component
+@Profile("reactive")
+public class ReactivePlanetHandler {
+
+    private final ReactivePlanetService planetService;
+
+    public ReactivePlanetHandler(ReactivePlanetService planetService) {
+        this.planetService = planetService;
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(Planet.class)
+            .flatMap(planetService::create)
+            .flatMap(planet -> ServerResponse.status(HttpStatus.CREATED).bodyValue(planet));
+    }
+
+    public Mono<ServerResponse> findById(ServerRequest request) {
+        return planetService.get(Long.valueOf(request.pathVariable("id")))
+            .flatMap(planet -> ServerResponse.ok().bodyValue(planet))
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> findByName(ServerRequest request) {
+        return planetService.findByName(request.pathVariable("name"))
+            .flatMap(planet -> ServerResponse.ok().bodyValue(planet))
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    /**
+     * Escreve os planetas conforme chegam do banco: a demanda da conexão HTTP controla a leitura das linhas.
+     */
+    public Mono<ServerResponse> findByFilter(ServerRequest request) {
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+            ? MediaType.APPLICATION_NDJSON
+            : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok()
+            .contentType(contentType)
+            .body(planetService.list(request.queryParam("terrain").orElse(null), request.queryParam("climate").orElse(null)), Planet.class);
+    }
+
+    public Mono<ServerResponse> deleteById(ServerRequest request) {
+        return planetService.remove(Long.valueOf(request.pathVariable("id")))
+            .then(ServerResponse.noContent().build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.starwars.planetapi.web;
+
+import com.starwars.planetapi.domain.exception.EntityNaoEncontradaException;
+import com.starwars.planetapi.domain.exception.PlanetJaExisteException;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.util.stream.Collectors;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Rotas do profile {@code reactive}. Os erros seguem o {@link GeneralExceptionHandler}: 422 para dados
+ * inválidos, 409 para nome repetido, 404 para registro inexistente e 503 com Retry-After sem conexão. O
+ * {@code POST} aceita qualquer tipo que os decoders leiam; os demais recebem 415, como no MVC.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactive")
+public class ReactivePlanetRoutes {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @Bean
+    public RouterFunction<ServerResponse> planetRoutes(ReactivePlanetHandler handler) {
+        return route()
+            .POST("/planets", handler::create)
+            .GET("/planets/name/{name}", handler::findByName)
+            .GET("/planets/{id}", handler::findById)
+            .GET("/planets", handler::findByFilter)
+            .DELETE("/planets/{id}", handler::deleteById)
+            .onError(ConstraintViolationException.class, (ex, request) -> {
+                String detail = ((ConstraintViolationException) ex).getConstraintViolations().stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+                return ServerResponse.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .bodyValue(ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, detail));
+            })
+            .onError(NumberFormatException.class,
+                (ex, request) -> ServerResponse.badRequest().bodyValue(ProblemDetail.forStatus(HttpStatus.BAD_REQUEST)))
+            .onError(DataIntegrityViolationException.class,
+                (ex, request) -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue(ex.getMessage()))
+            .onError(PlanetJaExisteException.class,
+                (ex, request) -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue(ex.getMessage()))
+            .onError(EntityNaoEncontradaException.class,
+                (ex, request) -> ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(ex.getMessage()))
+            .onError(EmptyResultDataAccessException.class,
+                (ex, request) -> ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(ex.getMessage()))
+            .onError(ex -> ex instanceof DataAccessResourceFailureException || ex instanceof CannotCreateTransactionException,
+                (ex, request) -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .bodyValue(ex.getMessage()))
+            .build();
+    }
+}
@@ -0,0 +1,10 @@
+-- Esquema equivalente ao que o ddl-auto=update gerava a partir de Planet antes das colunas novas; é o que um banco
+-- marcado como versão 1 já tem. Roda no MySQL e no H2 dos testes.
+CREATE TABLE planets (
+    id bigint NOT NULL AUTO_INCREMENT,
+    name varchar(255) NOT NULL,
+    climate varchar(255) NOT NULL,
+    terrain varchar(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_planets_name UNIQUE (name)
+);
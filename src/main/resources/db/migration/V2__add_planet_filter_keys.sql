@@ -0,0 +1,6 @@
+-- Valores de terrain e climate em minúsculas, gerados pelo banco, e os índices usados pelos filtros.
+ALTER TABLE planets ADD COLUMN climate_key varchar(255) GENERATED ALWAYS AS (lower(climate));
+ALTER TABLE planets ADD COLUMN terrain_key varchar(255) GENERATED ALWAYS AS (lower(terrain));
+
+CREATE INDEX idx_planets_terrain_climate ON planets (terrain_key, climate_key);
+CREATE INDEX idx_planets_climate ON planets (climate_key);
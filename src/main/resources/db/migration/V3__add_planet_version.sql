@@ -0,0 +1,3 @@
+-- Versão para o lock otimista e instante da última alteração, usados pelo ETag e pelo Last-Modified.
+ALTER TABLE planets ADD COLUMN version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE planets ADD COLUMN last_modified timestamp(3) DEFAULT current_timestamp(3) NOT NULL;
@@ -0,0 +1,20 @@
+-- Outbox de alterações: gravado na mesma transação da alteração do planeta e lido pelo relay e por GET /planets/changes.
+CREATE TABLE planet_changes (
+    seq bigint NOT NULL AUTO_INCREMENT,
+    planet_id bigint NOT NULL,
+    change_type varchar(16) NOT NULL,
+    name varchar(255),
+    climate varchar(255),
+    terrain varchar(255),
+    occurred_at timestamp(3) NOT NULL,
+    PRIMARY KEY (seq)
+);
+
+-- Última alteração entregue pelo relay ao sink. Uma linha só, travada durante cada entrega.
+CREATE TABLE planet_change_relay (
+    id int NOT NULL,
+    last_seq bigint NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO planet_change_relay (id, last_seq) VALUES (1, 0);
@@ -0,0 +1,28 @@
+package com.starwars.planetapi.config;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetGroupCount;
+import com.starwars.planetapi.domain.PlanetListVersion;
+import com.starwars.planetapi.domain.PlanetView;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanetRuntimeHintsTest {
+
+    @Test
+    void registerHints_RegistersProjectionConstructorsAndJsonBindings() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new PlanetRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(PlanetView.class)
+            .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(PlanetListVersion.class.getConstructors()[0])).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(PlanetGroupCount.class.getConstructors()[0])).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Planet.class.getMethod("getName"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Planet.class.getMethod("setName", String.class))).accepts(hints);
+    }
+}
@@ -0,0 +1,83 @@
+package com.starwars.planetapi.config;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaCallerFilterTest {
+
+    private final ReplicaCallerFilter filter = new ReplicaCallerFilter("X-Client-Id");
+
+    @AfterEach
+    void afterEach() {
+        ReplicaDataSource.clearCaller();
+    }
+
+    @Test
+    void doFilter_WithCallerHeader_UsesHeaderInsteadOfAddress() throws Exception {
+        Object first = callerOf(request("10.0.0.1", "client-a"));
+        Object second = callerOf(request("10.0.0.2", "client-a"));
+        Object other = callerOf(request("10.0.0.1", "client-b"));
+
+        assertThat(first).isEqualTo(second).isNotEqualTo(other);
+        assertThat(first.toString()).startsWith("header:").doesNotContain("client-a");
+        assertThat(ReplicaDataSource.caller()).isNull();
+    }
+
+    @Test
+    void doFilter_WithoutCallerHeader_UsesAddress() throws Exception {
+        assertThat(callerOf(request("10.0.0.1", null))).isEqualTo("address:10.0.0.1");
+    }
+
+    @Test
+    void asyncCaller_OnAsyncThread_SetsCallerOfRequestAndClearsIt() throws Exception {
+        ReplicaCallerFilter.AsyncCaller interceptor = new ReplicaCallerFilter.AsyncCaller();
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest());
+        Callable<Void> task = () -> null;
+        ReplicaDataSource.setCaller("client-a");
+        interceptor.beforeConcurrentHandling(webRequest, task);
+        ReplicaDataSource.clearCaller();
+
+        AtomicReference<Object> during = new AtomicReference<>();
+        Object after = CompletableFuture.supplyAsync(() -> {
+            interceptor.preProcess(webRequest, task);
+            during.set(ReplicaDataSource.caller());
+            interceptor.postProcess(webRequest, task, null);
+            return ReplicaDataSource.caller();
+        }).get();
+
+        assertThat(during.get()).isEqualTo("client-a");
+        assertThat(after).isNull();
+    }
+
+    private Object callerOf(MockHttpServletRequest request) throws Exception {
+        AtomicReference<Object> caller = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                caller.set(ReplicaDataSource.caller());
+            }
+        });
+        return caller.get();
+    }
+
+    private static MockHttpServletRequest request(String address, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/planets");
+        request.setRemoteAddr(address);
+        if (clientId != null) {
+            request.addHeader("X-Client-Id", clientId);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,175 @@
+package com.starwars.planetapi.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicaDataSourceTest {
+
+    private final DataSource primary = database("primary");
+    private final DataSource replica0 = database("replica-0");
+    private final DataSource replica1 = database("replica-1");
+    private final DataSource missing = new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+
+    private ReplicaDataSource replicaDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void afterEach() throws Exception {
+        ReplicaDataSource.clearCaller();
+        replicaDataSource.destroy();
+    }
+
+    @Test
+    void readOnlyTransaction_WithHealthyReplica_ReadsFromReplica() throws Exception {
+        route(List.of(replica0), Duration.ZERO);
+        assertThat(readInReadOnlyTransaction()).isEqualTo("replica-0");
+        assertThat(write()).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_WithRoundRobin_AlternatesReplicas() throws Exception {
+        route(List.of(replica0, replica1), Duration.ZERO);
+        assertThat(List.of(readInReadOnlyTransaction(), readInReadOnlyTransaction(), readInReadOnlyTransaction()))
+            .containsExactly("replica-0", "replica-1", "replica-0");
+    }
+
+    @Test
+    void readOnlyTransaction_RightAfterWrite_ReadsFromPrimary() throws Exception {
+        route(List.of(replica0), Duration.ofMinutes(1));
+        ReplicaDataSource.setCaller("client-a");
+        write();
+        assertThat(readInReadOnlyTransaction()).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_AfterWriteByAnotherCaller_ReadsFromReplica() throws Exception {
+        route(List.of(replica0), Duration.ofMinutes(1));
+        ReplicaDataSource.setCaller("client-a");
+        write();
+
+        ReplicaDataSource.setCaller("client-b");
+        assertThat(readInReadOnlyTransaction()).isEqualTo("replica-0");
+        ReplicaDataSource.clearCaller();
+        assertThat(readInReadOnlyTransaction()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void readOnlyTransaction_AfterPrimaryUseWithoutCommittedWrite_ReadsFromReplica() throws Exception {
+        route(List.of(replica0), Duration.ofMinutes(1));
+        ReplicaDataSource.setCaller("client-a");
+        jdbcTemplate.queryForObject("SELECT name FROM origin", String.class);
+        transactionTemplate.setReadOnly(false);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE origin SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readInReadOnlyTransaction()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void readOnlyTransaction_AfterWriteWithoutCaller_ReadsFromReplica() throws Exception {
+        route(List.of(replica0), Duration.ofMinutes(1));
+        write();
+
+        ReplicaDataSource.setCaller("client-a");
+        assertThat(readInReadOnlyTransaction()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void getConnection_WithCredentials_ThrowsFeatureNotSupported() throws Exception {
+        route(List.of(replica0), Duration.ZERO);
+        assertThatThrownBy(() -> replicaDataSource.getConnection("sa", ""))
+            .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    @Test
+    void readOnlyTransaction_WithReplicaDown_ReadsFromPrimary() throws Exception {
+        route(List.of(missing, replica0), Duration.ZERO);
+        assertThat(replicaDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(List.of(readInReadOnlyTransaction(), readInReadOnlyTransaction())).containsOnly("replica-0");
+
+        route(List.of(missing), Duration.ZERO);
+        assertThat(readInReadOnlyTransaction()).isEqualTo("primary");
+    }
+
+    @Test
+    void constructor_WithReplicaStillConnecting_DoesNotWaitForHealthCheck() throws Exception {
+        CountDownLatch connecting = new CountDownLatch(1);
+        DataSource slow = new DelegatingDataSource(replica0) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    connecting.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(ex);
+                }
+                return super.getConnection();
+            }
+        };
+        connect(List.of(slow), Duration.ZERO);
+
+        assertThat(replicaDataSource.healthyReplicas()).isZero();
+        assertThat(readInReadOnlyTransaction()).isEqualTo("primary");
+        connecting.countDown();
+    }
+
+    private void route(List<DataSource> replicas, Duration readYourWritesWindow) throws Exception {
+        connect(replicas, readYourWritesWindow);
+        // A primeira verificação roda em segundo plano; aqui ela precisa ter terminado.
+        replicaDataSource.checkHealth();
+    }
+
+    private void connect(List<DataSource> replicas, Duration readYourWritesWindow) throws Exception {
+        if (replicaDataSource != null) {
+            replicaDataSource.destroy();
+        }
+        replicaDataSource = new ReplicaDataSource(primary, replicas, ReplicaDataSource.Selection.ROUND_ROBIN,
+            readYourWritesWindow, Duration.ofMinutes(1));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaDataSource.trackingWrites());
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    private String readInReadOnlyTransaction() {
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM origin", String.class));
+    }
+
+    private String write() {
+        transactionTemplate.setReadOnly(false);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("UPDATE origin SET name = name");
+            return jdbcTemplate.queryForObject("SELECT name FROM origin", String.class);
+        });
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS origin (name VARCHAR(20))");
+        jdbcTemplate.execute("DELETE FROM origin");
+        jdbcTemplate.update("INSERT INTO origin (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,51 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.outbox.PlanetOutbox;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.starwars.planetapi.common.PlanetConstants.TATOOINE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DataJpaTest
+@Import({PlanetBatchWriter.class, PlanetOutbox.class})
+class PlanetBatchWriterTest {
+
+    @Autowired private PlanetBatchWriter planetBatchWriter;
+    @Autowired private PlanetRepository planetRepository;
+
+    @Test
+    void insertPlanets_InOneBatch_ReturnsGeneratedIds() {
+        Map<String, Long> ids = planetBatchWriter.insert(List.of(
+            new Planet("Hoth", "frozen", "tundra"),
+            new Planet("Endor", "temperate", "forests")));
+
+        assertThat(ids).containsOnlyKeys("Hoth", "Endor");
+        Optional<Planet> hoth = planetRepository.findById(ids.get("Hoth"));
+        assertThat(hoth).isPresent();
+        assertThat(hoth.get().getTerrain()).isEqualTo("tundra");
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void insertPlanets_WithExistingName_ThrowsDuplicateKey() {
+        List<Planet> planets = List.of(new Planet(TATOOINE.getName(), "arid", "desert"));
+        assertThatThrownBy(() -> planetBatchWriter.insert(planets)).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void findExistingNames_ReturnsOnlyStoredNames() {
+        assertThat(planetBatchWriter.findExistingNames(List.of(TATOOINE.getName(), "Hoth"))).containsExactly(TATOOINE.getName());
+        assertThat(planetBatchWriter.findExistingNames(List.of())).isEmpty();
+    }
+}
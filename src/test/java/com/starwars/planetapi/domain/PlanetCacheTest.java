@@ -0,0 +1,119 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.exception.EsperaEsgotadaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.starwars.planetapi.common.PlanetConstants.TATOOINE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class PlanetCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PlanetCache planetCache = new PlanetCache(100, Duration.ofMinutes(5), Duration.ofSeconds(10),
+        new PlanetSingleFlight(meterRegistry, Duration.ofMillis(200)));
+
+    @Test
+    void getPlanet_WithConcurrentCallers_LoadsOnceOnVirtualThreads() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> planetCache.get(1L, id -> {
+                loads.incrementAndGet();
+                await(release);
+                return Optional.of(TATOOINE);
+            }));
+            waitUntilLoading(loads);
+            var second = executor.submit(() -> planetCache.get(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+            }));
+            // Só libera a carga depois que a segunda chamada decidiu esperar por ela.
+            waitUntilCoalesced();
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).contains(TATOOINE);
+            assertThat(second.get(5, TimeUnit.SECONDS)).contains(TATOOINE);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("planet.service.coalesced").tag("operation", "get").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getPlanet_WhenLoadTakesLongerThanMaxWait_FailsWaiterOnly() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> planetCache.get(1L, id -> {
+                loads.incrementAndGet();
+                await(release);
+                return Optional.of(TATOOINE);
+            }));
+            waitUntilLoading(loads);
+
+            assertThatThrownBy(() -> planetCache.get(1L, id -> Optional.empty()))
+                .isInstanceOf(EsperaEsgotadaException.class);
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).contains(TATOOINE);
+        }
+        assertThat(meterRegistry.get("planet.service.coalesced.timeouts").tag("operation", "get").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getPlanet_InvalidatedWhileLoading_DoesNotKeepStaleValue() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Optional<Planet>> stale = CompletableFuture.supplyAsync(() -> planetCache.get(1L, id -> {
+            loading.countDown();
+            await(release);
+            return Optional.of(TATOOINE);
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+        planetCache.invalidate(1L, null);
+        release.countDown();
+
+        assertThat(stale.get(5, TimeUnit.SECONDS)).contains(TATOOINE);
+        assertThat(planetCache.get(1L, id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void getPlanet_WhenLoaderFails_DoesNotCacheFailure() {
+        assertThatThrownBy(() -> planetCache.get(1L, id -> {
+            throw new IllegalStateException("banco indisponível");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(planetCache.get(1L, id -> Optional.of(TATOOINE))).contains(TATOOINE);
+    }
+
+    private static void waitUntilLoading(AtomicInteger loads) throws InterruptedException {
+        while (loads.get() == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void waitUntilCoalesced() throws InterruptedException {
+        while (meterRegistry.find("planet.service.coalesced").counter() == null) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.starwars.planetapi.domain;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanetMigrationTest {
+
+    @Test
+    void migrate_WithDatabaseCreatedByDdlAutoUpdate_AddsNewColumnsAfterBaseline() {
+        DataSource dataSource = dataSource("migration-baseline");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE planets (id bigint GENERATED BY DEFAULT AS IDENTITY, name varchar(255) NOT NULL,"
+            + " climate varchar(255) NOT NULL, terrain varchar(255) NOT NULL, PRIMARY KEY (id), UNIQUE (name))");
+        jdbcTemplate.update("INSERT INTO planets (name, climate, terrain) VALUES ('Tatooine', 'Arid', 'Desert')");
+
+        int applied = Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load()
+            .migrate().migrationsExecuted;
+
+        assertThat(applied).isEqualTo(3);
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT climate_key, terrain_key, version, last_modified FROM planets WHERE name = 'Tatooine'");
+        assertThat(row).containsEntry("CLIMATE_KEY", "arid").containsEntry("TERRAIN_KEY", "desert")
+            .containsEntry("VERSION", 0L);
+        assertThat(row.get("LAST_MODIFIED")).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT last_seq FROM planet_change_relay", Long.class)).isZero();
+    }
+
+    @Test
+    void migrate_WithEmptyDatabase_RunsAllMigrations() {
+        DataSource dataSource = dataSource("migration-empty");
+
+        int applied = Flyway.configure().dataSource(dataSource).load().migrate().migrationsExecuted;
+
+        assertThat(applied).isEqualTo(4);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO planets (name, climate, terrain) VALUES ('Hoth', 'Frozen', 'Tundra')");
+        assertThat(jdbcTemplate.queryForObject("SELECT climate_key FROM planets", String.class)).isEqualTo("frozen");
+    }
+
+    private static DataSource dataSource(String name) {
+        return new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,136 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.PlanetNameMatch.Match;
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlanetNameIndexTest {
+
+    private static final List<Planet> PLANETS = List.of(
+        new Planet(1L, "Tatooine", "arid", "desert"),
+        new Planet(2L, "Alderaan", "temperate", "grasslands, mountains"),
+        new Planet(3L, "Yavin IV", "temperate, tropical", "jungle, rainforests"),
+        new Planet(4L, "Hoth", "frozen", "tundra"),
+        new Planet(5L, "Dagobah", "murky", "swamp"),
+        new Planet(6L, "Tatooine Minor", "arid", "desert"),
+        new Planet(7L, "Naboo", "temperate", "grassy hills"),
+        new Planet(8L, "Naboo Prime", "temperate", "grassy hills"));
+
+    @InjectMocks
+    private PlanetNameIndex planetNameIndex;
+
+    @Mock
+    private PlanetRepository planetRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        when(planetRepository.findPage(0L, null, null, Limit.of(1000))).thenReturn(PLANETS);
+        planetNameIndex.warmUp();
+    }
+
+    @Test
+    void search_WithExactName_ReturnsExactBeforePrefixMatches() {
+        assertThat(planetNameIndex.search("tatooine", 10)).containsExactly(
+            new PlanetNameMatch(1L, "Tatooine", Match.EXACT, 0),
+            new PlanetNameMatch(6L, "Tatooine Minor", Match.PREFIX, 0));
+    }
+
+    @Test
+    void search_WithPrefix_ReturnsNamesInAlphabeticalOrder() {
+        assertThat(planetNameIndex.search("NAB", 10)).extracting(PlanetNameMatch::name).containsExactly("Naboo", "Naboo Prime");
+    }
+
+    @Test
+    void search_WithTypos_ReturnsFuzzyMatchesByDistance() {
+        assertThat(planetNameIndex.search("tatoine", 10)).containsExactly(
+            new PlanetNameMatch(1L, "Tatooine", Match.FUZZY, 1));
+        assertThat(planetNameIndex.search("dagobha", 10)).containsExactly(
+            new PlanetNameMatch(5L, "Dagobah", Match.FUZZY, 2));
+    }
+
+    @Test
+    void search_WithPrefixAndTypos_ListsPrefixMatchesFirst() {
+        assertThat(planetNameIndex.search("naboo", 10)).containsExactly(
+            new PlanetNameMatch(7L, "Naboo", Match.EXACT, 0),
+            new PlanetNameMatch(8L, "Naboo Prime", Match.PREFIX, 0));
+        assertThat(planetNameIndex.search("hotg", 10)).containsExactly(
+            new PlanetNameMatch(4L, "Hoth", Match.FUZZY, 1));
+    }
+
+    @Test
+    void search_WithShortQuery_DoesNotMatchFuzzy() {
+        assertThat(planetNameIndex.search("ho", 10)).extracting(PlanetNameMatch::name).containsExactly("Hoth");
+        assertThat(planetNameIndex.search("hx", 10)).isEmpty();
+    }
+
+    @Test
+    void search_WithLimit_ReturnsFirstRankedMatches() {
+        assertThat(planetNameIndex.search("tatooine", 1)).extracting(PlanetNameMatch::id).containsExactly(1L);
+    }
+
+    @Test
+    void search_WithBlankQuery_ReturnsEmpty() {
+        assertThat(planetNameIndex.search("  ", 10)).isEmpty();
+        assertThat(planetNameIndex.search(null, 10)).isEmpty();
+    }
+
+    @Test
+    void search_AfterCreateAndRemove_KeepsIndexInSync() {
+        planetNameIndex.onCreated(new PlanetCreatedEvent(new Planet(9L, "Tatooina", "arid", "desert")));
+        planetNameIndex.onRemoved(new PlanetRemovedEvent(1L));
+
+        assertThat(planetNameIndex.search("tatooine", 10)).containsExactly(
+            new PlanetNameMatch(6L, "Tatooine Minor", Match.PREFIX, 0),
+            new PlanetNameMatch(9L, "Tatooina", Match.FUZZY, 1));
+    }
+
+    @Test
+    void warmUp_WithChangesCommittedDuringLoad_ReplaysThemOverLoadedNames() {
+        PlanetNameIndex index = new PlanetNameIndex(planetRepository);
+        when(planetRepository.findPage(0L, null, null, Limit.of(1000))).thenAnswer(invocation -> {
+            index.onRemoved(new PlanetRemovedEvent(4L));
+            index.onCreated(new PlanetCreatedEvent(new Planet(9L, "Bespin", "temperate", "gas giant")));
+            return PLANETS;
+        });
+
+        index.warmUp();
+
+        assertThat(index.search("hoth", 10)).isEmpty();
+        assertThat(index.search("bespin", 10)).containsExactly(new PlanetNameMatch(9L, "Bespin", Match.EXACT, 0));
+    }
+
+    @Test
+    void search_AfterCompaction_KeepsCreatedAndRemovedNames() {
+        LongStream.range(100, 100 + PlanetNameIndex.COMPACT_THRESHOLD)
+            .forEach(id -> planetNameIndex.add(new Planet(id, "Kamino " + id, "temperate", "ocean")));
+        planetNameIndex.remove(4L);
+        planetNameIndex.remove(100L);
+
+        assertThat(planetNameIndex.search("kamino 10", 3)).extracting(PlanetNameMatch::name)
+            .containsExactly("Kamino 1000", "Kamino 1001", "Kamino 1002");
+        assertThat(planetNameIndex.search("kamino 100", 1)).extracting(PlanetNameMatch::match).containsExactly(Match.PREFIX);
+        assertThat(planetNameIndex.search("kamino 10x", 3)).extracting(PlanetNameMatch::name)
+            .containsExactly("Kamino 101", "Kamino 102", "Kamino 103");
+        assertThat(planetNameIndex.search("hoth", 10)).isEmpty();
+    }
+
+    @Test
+    void distance_BeyondMaximum_StopsAtMaximumPlusOne() {
+        assertThat(PlanetNameIndex.distance("alderaan", "alderan", 2)).isEqualTo(1);
+        assertThat(PlanetNameIndex.distance("alderaan", "tatooine", 2)).isEqualTo(3);
+    }
+}
@@ -6,14 +6,17 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.starwars.planetapi.common.PlanetConstants.PLANET;
@@ -21,7 +24,12 @@ import static com.starwars.planetapi.common.PlanetConstants.TATOOINE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
-@DataJpaTest
+// MODE=MySQL para o INSERT IGNORE do insertIfAbsent.
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:repository;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa", "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 class PlanetRepositoryTest {
 
     @Autowired private PlanetRepository planetRepository;
@@ -30,6 +38,8 @@ class PlanetRepositoryTest {
     @AfterEach
     void afterEach() {
         PLANET.setId(null);
+        PLANET.setVersion(null);
+        PLANET.setLastModified(null);
     }
 
     @Test
@@ -75,6 +85,42 @@ class PlanetRepositoryTest {
         assertThatThrownBy(() -> planetRepository.save(planet)).isInstanceOf(DataIntegrityViolationException.class);
     }
 
+    @Test
+    void insertPlanetIfAbsent_WithNewName_ReturnsPlanetWithGeneratedId() {
+        Optional<Planet> sut = planetRepository.insertIfAbsent(PLANET);
+
+        assertThat(sut).isPresent();
+        assertThat(sut.get().getId()).isNotNull();
+        assertThat(sut.get().getLastModified()).isNotNull();
+        Planet stored = testEntityManager.find(Planet.class, sut.get().getId());
+        assertThat(stored).isEqualTo(sut.get());
+        assertThat(stored.getLastModified()).isEqualTo(sut.get().getLastModified());
+    }
+
+    @Test
+    void insertPlanetIfAbsent_WithNameExisting_ReturnsEmptyWithoutException() {
+        testEntityManager.persistAndFlush(new Planet(PLANET.getName(), "other", "other"));
+
+        Optional<Planet> sut = planetRepository.insertIfAbsent(PLANET);
+
+        assertThat(sut).isEmpty();
+        assertThat(planetRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void updatePlanetIfChanged_WithChangedOrSameData_ReturnsUpdatedRows() {
+        Planet planet = testEntityManager.persistFlushFind(new Planet("Hoth", "frozen", "tundra"));
+        testEntityManager.detach(planet);
+
+        assertThat(planetRepository.updateIfChanged("Hoth", "frozen", "tundra")).isZero();
+        assertThat(planetRepository.updateIfChanged("Hoth", "frozen", "ice caves")).isEqualTo(1);
+        assertThat(planetRepository.updateIfChanged("Endor", "temperate", "forests")).isZero();
+
+        Planet sut = planetRepository.findByName("Hoth").orElseThrow();
+        assertThat(sut.getTerrain()).isEqualTo("ice caves");
+        assertThat(sut.getVersion()).isEqualTo(planet.getVersion() + 1);
+    }
+
     @Test
     void getPlanet_ByExistingId_ReturnsPlanet() {
         Planet planet = testEntityManager.persistFlushFind(PLANET);
@@ -110,8 +156,8 @@ class PlanetRepositoryTest {
     @Sql(scripts = {"/imports_planets.sql"})
     @Test
     void listPlanets_ReturnsFilteredPlanets() {
-        Example<Planet> queryWithoutFilters = QueryBuilder.makeQuery(new Planet());
-        Example<Planet> queryWithFilters = QueryBuilder.makeQuery(new Planet(TATOOINE.getTerrain(), TATOOINE.getClimate()));
+        Specification<Planet> queryWithoutFilters = QueryBuilder.makeQuery(new Planet());
+        Specification<Planet> queryWithFilters = QueryBuilder.makeQuery(new Planet(TATOOINE.getTerrain(), TATOOINE.getClimate()));
 
         List<Planet> responseWithoutFilters = planetRepository.findAll(queryWithoutFilters);
         List<Planet> responseWithFilters = planetRepository.findAll(queryWithFilters);
@@ -125,20 +171,127 @@ class PlanetRepositoryTest {
         .hasSize(1);
     }
 
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void listPlanets_IgnoringCase_ReturnsExactMatchesOnly() {
+        List<Planet> byTerrain = planetRepository.findAll(QueryBuilder.makeQuery(new Planet("DESERT", null)));
+        List<Planet> byClimate = planetRepository.findAll(QueryBuilder.makeQuery(new Planet(null, "Temperate")));
+
+        assertThat(byTerrain).containsExactly(TATOOINE);
+        assertThat(byClimate).extracting(Planet::getName).containsExactly("Alderaan");
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void listPlanets_AsViews_ReadsOnlyRequestedFieldsWithoutManagingEntities() {
+        List<PlanetView> all = planetRepository.findViews(QueryBuilder.makeQuery(new Planet()), Set.copyOf(PlanetView.FIELDS));
+        List<PlanetView> idAndName = planetRepository.findViews(QueryBuilder.makeQuery(new Planet(null, "temperate")), Set.of("id", "name"));
+
+        assertThat(all).containsExactly(PlanetView.of(TATOOINE), new PlanetView(2L, "Alderaan", "temperate", "grasslands, mountains"),
+            new PlanetView(3L, "Yavin IV", "temperate, tropical", "jungle, rainforests"));
+        assertThat(idAndName).containsExactly(new PlanetView(2L, "Alderaan", null, null));
+        assertThat(testEntityManager.getEntityManager().contains(testEntityManager.find(Planet.class, 1L))).isTrue();
+    }
+
+    @Test
+    void listPlanets_ByTerrainAndClimate_UsesCompositeIndex() {
+        String plan = explain("SELECT * FROM planets WHERE terrain_key = 'desert' AND climate_key = 'arid'");
+        assertThat(plan).containsIgnoringCase("idx_planets_terrain_climate");
+    }
+
+    @Test
+    void listPlanets_ByClimate_UsesClimateIndex() {
+        String plan = explain("SELECT * FROM planets WHERE climate_key = 'arid'");
+        assertThat(plan).containsIgnoringCase("idx_planets_climate");
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(testEntityManager.getEntityManager().createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
+
     @Test
     void listPlanets_ReturnNoPlanets() {
-        Example<Planet> query = QueryBuilder.makeQuery(new Planet());
+        Specification<Planet> query = QueryBuilder.makeQuery(new Planet());
         List<Planet> response = planetRepository.findAll(query);
 
         assertThat(response).isEmpty();
     }
 
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void pagePlanets_AfterLastId_ReturnsNextPlanetsOrderedById() {
+        List<Planet> firstPage = planetRepository.findPage(0L, null, null, Limit.of(2));
+        List<Planet> secondPage = planetRepository.findPage(firstPage.getLast().getId(), null, null, Limit.of(2));
+
+        assertThat(firstPage).extracting(Planet::getId).containsExactly(1L, 2L);
+        assertThat(secondPage).extracting(Planet::getId).containsExactly(3L);
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void pagePlanets_WithFilters_ReturnsFilteredPlanets() {
+        List<Planet> sut = planetRepository.findPage(0L, "desert", TATOOINE.getClimate(), Limit.of(10));
+        assertThat(sut).containsExactly(TATOOINE);
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void streamPlanets_WithFilters_ReturnsFilteredPlanets() {
+        try (Stream<Planet> all = planetRepository.streamByFilter(null, null);
+             Stream<Planet> filtered = planetRepository.streamByFilter(null, "temperate")) {
+            assertThat(all).hasSize(3);
+            assertThat(filtered).extracting(Planet::getName).containsExactly("Alderaan");
+        }
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void listVersion_AfterInsertAndDelete_Changes() {
+        PlanetListVersion initial = planetRepository.findListVersion(null, "temperate");
+        assertThat(initial.count()).isEqualTo(1);
+        assertThat(initial.maxId()).isEqualTo(2L);
+        assertThat(initial.lastModified()).isNotNull();
+
+        Planet created = testEntityManager.persistFlushFind(new Planet("Bespin", "Temperate", "gas giant"));
+        PlanetListVersion afterInsert = planetRepository.findListVersion(null, "temperate");
+        assertThat(afterInsert.tag()).isNotEqualTo(initial.tag());
+        assertThat(created.getVersion()).isZero();
+
+        planetRepository.deleteById(2L);
+        testEntityManager.flush();
+        assertThat(planetRepository.findListVersion(null, "temperate").tag()).isNotEqualTo(afterInsert.tag());
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void countByTerrainAndClimate_WithFilters_GroupsByNormalizedPair() {
+        assertThat(planetRepository.countByTerrainAndClimate(null, null)).containsExactlyInAnyOrder(
+            new PlanetGroupCount("desert", "arid", 1),
+            new PlanetGroupCount("grasslands, mountains", "temperate", 1),
+            new PlanetGroupCount("jungle, rainforests", "temperate, tropical", 1));
+        assertThat(planetRepository.countByTerrainAndClimate(null, "temperate")).containsExactly(
+            new PlanetGroupCount("grasslands, mountains", "temperate", 1));
+        assertThat(planetRepository.countByTerrainAndClimate("swamp", null)).isEmpty();
+        assertThat(planetRepository.countByFilter(null, null)).isEqualTo(3);
+        assertThat(planetRepository.countByFilter("desert", "temperate")).isZero();
+    }
+
     @Test
     void removePlanet_WithExistingId_RemovePlanetFromDatabase() {
         Planet planet = testEntityManager.persistFlushFind(PLANET);
-        planetRepository.deleteById(planet.getId());
+        testEntityManager.detach(planet);
+        assertThat(planetRepository.deleteRow(planet.getId())).isEqualTo(1);
         Optional<Planet> sut = planetRepository.findById(planet.getId());
         assertThat(sut).isEmpty();
+        assertThat(planetRepository.deleteRow(planet.getId())).isZero();
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void removePlanets_ByIds_RemovesOnlyExistingPlanets() {
+        int sut = planetRepository.deleteRows(List.of(1L, 3L, 99L));
+        assertThat(sut).isEqualTo(2);
+        assertThat(planetRepository.findAll()).extracting(Planet::getName).containsExactly("Alderaan");
     }
 
 }
@@ -1,22 +1,60 @@
 package com.starwars.planetapi.domain;
 
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import com.starwars.planetapi.domain.exception.CampoInvalidoException;
+import com.starwars.planetapi.domain.exception.PlanetJaExisteException;
+import com.starwars.planetapi.domain.exception.PlanetNaoEncontradaException;
+import com.starwars.planetapi.domain.exception.TokenAusenteException;
+import com.starwars.planetapi.domain.outbox.PlanetChange;
+import com.starwars.planetapi.domain.outbox.PlanetChangePage;
+import com.starwars.planetapi.domain.outbox.PlanetOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Example;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import static com.starwars.planetapi.common.PlanetConstants.INVALID_PLANET;
-import static com.starwars.planetapi.common.PlanetConstants.PLANET;
+import static com.starwars.planetapi.common.PlanetConstants.*;
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,13 +70,48 @@ class PlanetServiceTest {
     @Mock
     private PlanetRepository planetRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlanetTokenIndex planetTokenIndex;
+
+    @Mock
+    private PlanetNameIndex planetNameIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlanetBatchWriter planetBatchWriter;
+
+    @Mock
+    private PlanetOutbox planetOutbox;
+
+    @Mock
+    private PlanetSnapshot planetSnapshot;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PlanetSingleFlight singleFlight = new PlanetSingleFlight(meterRegistry, Duration.ofSeconds(5));
+
+    @Spy
+    private PlanetCache planetCache = new PlanetCache(100, Duration.ofMinutes(5), Duration.ofSeconds(10), singleFlight);
+
+    @Spy
+    private PlanetMetrics planetMetrics = new PlanetMetrics(meterRegistry);
+
     // operacao_estado_returno
     @Test
     void createPlanet_WithValidData_ReturnsPlanet () {
         // Teste AAA
 
         // Arrange
-        when(planetRepository.save(PLANET)).thenReturn(PLANET);
+        when(planetRepository.insertIfAbsent(PLANET)).thenReturn(Optional.of(PLANET));
 
         // Action
         // system under test
@@ -48,10 +121,157 @@ class PlanetServiceTest {
         assertThat(sut).isEqualTo(PLANET);
     }
 
+    @Test
+    void createPlanet_WithValidData_PublishesCreatedEvent() {
+        when(planetRepository.insertIfAbsent(PLANET)).thenReturn(Optional.of(PLANET));
+        planetService.create(PLANET);
+        verify(eventPublisher).publishEvent(new PlanetCreatedEvent(PLANET));
+    }
+
+    @Test
+    void createPlanet_WithValidData_RecordsChangeBeforePublishingEvent() {
+        when(planetRepository.insertIfAbsent(PLANET)).thenReturn(Optional.of(PLANET));
+        planetService.create(PLANET);
+
+        InOrder inOrder = inOrder(planetOutbox, eventPublisher);
+        inOrder.verify(planetOutbox).recordCreated(PLANET);
+        inOrder.verify(eventPublisher).publishEvent(new PlanetCreatedEvent(PLANET));
+    }
+
     @Test
     void createPlanet_WithInvalidData_ThrowsException() {
-        when(planetRepository.save(INVALID_PLANET)).thenThrow(RuntimeException.class);
-        assertThatThrownBy(() -> planetService.create(INVALID_PLANET)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> planetService.create(INVALID_PLANET)).isInstanceOf(ConstraintViolationException.class);
+        verifyNoInteractions(planetRepository);
+    }
+
+    @Test
+    void createPlanet_WithExistingName_CountsConflict() {
+        when(planetRepository.insertIfAbsent(PLANET)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> planetService.create(PLANET))
+            .isInstanceOf(PlanetJaExisteException.class)
+            .hasMessageContaining(PLANET.getName());
+        assertThat(meterRegistry.get("planet.service.conflicts").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("planet.service").tag("operation", "create").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void createPlanet_WithInvalidData_IsTimedAsCreate() {
+        assertThatThrownBy(() -> planetService.create(INVALID_PLANET)).isInstanceOf(ConstraintViolationException.class);
+        assertThat(meterRegistry.get("planet.service").tag("operation", "create").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void createPlanet_WithExistingName_ThrowsWithoutStackTrace() {
+        when(planetRepository.insertIfAbsent(PLANET)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> planetService.create(PLANET))
+            .satisfies(ex -> assertThat(ex.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    void createPlanet_WithExistingName_RecordsNoChange() {
+        when(planetRepository.insertIfAbsent(PLANET)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> planetService.create(PLANET)).isInstanceOf(PlanetJaExisteException.class);
+        verify(planetOutbox, never()).recordCreated(any(Planet.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void createPlanet_WithConcurrentInsertOfSameName_CountsConflict() {
+        when(planetRepository.insertIfAbsent(PLANET)).thenThrow(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> planetService.create(PLANET)).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(meterRegistry.get("planet.service.conflicts").counter().count()).isEqualTo(1);
+        verify(planetOutbox, never()).recordCreated(any(Planet.class));
+    }
+
+    @Test
+    void upsertPlanet_WithNewName_CreatesPlanet() {
+        Planet hoth = new Planet("Hoth", "frozen", "tundra");
+        Planet created = new Planet(10L, "Hoth", "frozen", "tundra");
+        when(planetRepository.updateIfChanged("Hoth", "frozen", "tundra")).thenReturn(0);
+        when(planetRepository.insertIfAbsent(hoth)).thenReturn(Optional.of(created));
+
+        PlanetUpsert sut = planetService.upsert("Hoth", new Planet(null, "frozen", "tundra"));
+
+        assertThat(sut).isEqualTo(new PlanetUpsert(created, PlanetUpsert.Status.CREATED));
+        verify(planetOutbox).recordCreated(created);
+        verify(eventPublisher).publishEvent(new PlanetCreatedEvent(created));
+    }
+
+    @Test
+    void upsertPlanet_WithChangedData_UpdatesPlanet() {
+        Planet updated = new Planet(1L, TATOOINE.getName(), "arid, hot", "desert");
+        when(planetRepository.updateIfChanged(TATOOINE.getName(), "arid, hot", "desert")).thenReturn(1);
+        when(planetRepository.findByName(TATOOINE.getName())).thenReturn(Optional.of(updated));
+
+        PlanetUpsert sut = planetService.upsert(TATOOINE.getName(), new Planet(TATOOINE.getName(), "arid, hot", "desert"));
+
+        assertThat(sut).isEqualTo(new PlanetUpsert(updated, PlanetUpsert.Status.UPDATED));
+        verify(planetRepository, never()).insertIfAbsent(any());
+        verify(planetOutbox).recordUpdated(updated);
+        verify(eventPublisher).publishEvent(new PlanetUpdatedEvent(updated));
+        verify(singleFlight).forget("list");
+    }
+
+    @Test
+    void upsertPlanet_WithSameData_ChangesNothing() {
+        when(planetRepository.updateIfChanged(TATOOINE.getName(), TATOOINE.getClimate(), TATOOINE.getTerrain())).thenReturn(0);
+        when(planetRepository.insertIfAbsent(any())).thenReturn(Optional.empty());
+        when(planetRepository.findByName(TATOOINE.getName())).thenReturn(Optional.of(TATOOINE));
+
+        PlanetUpsert sut = planetService.upsert(TATOOINE.getName(), TATOOINE);
+
+        assertThat(sut).isEqualTo(new PlanetUpsert(TATOOINE, PlanetUpsert.Status.UNCHANGED));
+        verify(planetRepository, times(2)).updateIfChanged(TATOOINE.getName(), TATOOINE.getClimate(), TATOOINE.getTerrain());
+        verifyNoInteractions(planetOutbox, eventPublisher);
+    }
+
+    @Test
+    void upsertPlanet_WithInvalidData_ThrowsException() {
+        assertThatThrownBy(() -> planetService.upsert("Hoth", new Planet(null, "", "tundra")))
+            .isInstanceOf(ConstraintViolationException.class);
+        verifyNoInteractions(planetRepository);
+    }
+
+    @Test
+    void createPlanets_InBatch_ReportsEachRow() {
+        Planet hoth = new Planet("Hoth", "frozen", "tundra");
+        Planet endor = new Planet("Endor", "temperate", "forests");
+        Planet duplicated = new Planet("Hoth", "frozen", "tundra");
+        when(planetBatchWriter.batchSize()).thenReturn(500);
+        when(planetBatchWriter.findExistingNames(List.of("Hoth", "Endor", TATOOINE.getName()))).thenReturn(Set.of(TATOOINE.getName()));
+        when(planetBatchWriter.insert(List.of(hoth, endor))).thenReturn(Map.of("Hoth", 10L, "Endor", 11L));
+        runBatches();
+
+        List<PlanetBatchResult> sut = planetService.createAll(List.of(hoth, INVALID_PLANET, endor, duplicated, TATOOINE).iterator());
+
+        assertThat(sut).extracting(PlanetBatchResult::status).containsExactly(
+            PlanetBatchResult.Status.CREATED,
+            PlanetBatchResult.Status.INVALID,
+            PlanetBatchResult.Status.CREATED,
+            PlanetBatchResult.Status.CONFLICT,
+            PlanetBatchResult.Status.CONFLICT);
+        assertThat(sut).extracting(PlanetBatchResult::id).containsExactly(10L, null, 11L, null, null);
+        verify(eventPublisher).publishEvent(new PlanetCreatedEvent(hoth));
+        verify(planetSnapshot).inBatch(any());
+    }
+
+    @Test
+    void createPlanets_InBatchWithConcurrentDuplicate_FallsBackToSingleInserts() {
+        Planet hoth = new Planet("Hoth", "frozen", "tundra");
+        Planet endor = new Planet("Endor", "temperate", "forests");
+        when(planetBatchWriter.batchSize()).thenReturn(2);
+        when(planetBatchWriter.findExistingNames(List.of("Hoth", "Endor"))).thenReturn(Set.of());
+        when(planetBatchWriter.insert(List.of(hoth, endor))).thenThrow(DuplicateKeyException.class);
+        when(planetBatchWriter.insert(List.of(hoth))).thenThrow(DuplicateKeyException.class);
+        when(planetBatchWriter.insert(List.of(endor))).thenReturn(Map.of("Endor", 11L));
+        runBatches();
+
+        List<PlanetBatchResult> sut = planetService.createAll(List.of(hoth, endor).iterator());
+
+        assertThat(sut).extracting(PlanetBatchResult::status).containsExactly(
+            PlanetBatchResult.Status.CONFLICT,
+            PlanetBatchResult.Status.CREATED);
+        verify(eventPublisher).publishEvent(new PlanetCreatedEvent(endor));
     }
 
     @Test
@@ -66,9 +286,10 @@ class PlanetServiceTest {
     @Test
     void findPlanet_ByUnexistingId_ReturnEmpty() {
         when(planetRepository.findById(anyLong())).thenReturn(Optional.empty());
-        Optional<Planet> sut = planetService.get(anyLong());
+        Optional<Planet> sut = planetService.get(1L);
         assertThat(sut)
                 .isEmpty();
+        assertThat(meterRegistry.get("planet.service.not.found").tag("operation", "get").counter().count()).isEqualTo(1);
     }
 
     @Test
@@ -83,39 +304,445 @@ class PlanetServiceTest {
     @Test
     void findPlanet_ByUnexistingName_ReturnPlanet() {
         when(planetRepository.findByName(anyString())).thenReturn(Optional.empty());
-        Optional<Planet> sut = planetService.findByName(anyString());
+        Optional<Planet> sut = planetService.findByName("nome_aleatorio");
         assertThat(sut)
                 .isEmpty();
     }
 
+    @Test
+    void findPlanet_ByIdTwice_HitsRepositoryOnce() {
+        when(planetRepository.findById(TATOOINE.getId())).thenReturn(Optional.of(TATOOINE));
+        planetService.get(TATOOINE.getId());
+        Optional<Planet> sut = planetService.get(TATOOINE.getId());
+
+        assertThat(sut).contains(TATOOINE);
+        verify(planetRepository, times(1)).findById(TATOOINE.getId());
+        assertThat(planetCache.statsById().hitCount()).isEqualTo(1);
+        assertThat(planetCache.statsById().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findPlanet_ByNameTwice_ResolvesThroughIdCache() {
+        when(planetRepository.findByName(TATOOINE.getName())).thenReturn(Optional.of(TATOOINE));
+        when(planetRepository.findById(TATOOINE.getId())).thenReturn(Optional.of(TATOOINE));
+        planetService.findByName(TATOOINE.getName());
+        planetService.findByName(TATOOINE.getName());
+        Optional<Planet> sut = planetService.findByName(TATOOINE.getName());
+
+        assertThat(sut).contains(TATOOINE);
+        verify(planetRepository, times(1)).findByName(TATOOINE.getName());
+        verify(planetRepository, times(1)).findById(TATOOINE.getId());
+    }
+
+    @Test
+    void findPlanet_ByUnexistingNameTwice_CachesEmptyResult() {
+        when(planetRepository.findByName("nome_aleatorio")).thenReturn(Optional.empty());
+        planetService.findByName("nome_aleatorio");
+        Optional<Planet> sut = planetService.findByName("nome_aleatorio");
+
+        assertThat(sut).isEmpty();
+        verify(planetRepository, times(1)).findByName("nome_aleatorio");
+    }
+
+    @Test
+    void createPlanet_AfterCachedMiss_InvalidatesIdAndName() {
+        Planet hoth = new Planet(10L, "Hoth", "frozen", "tundra");
+        when(planetRepository.findByName(hoth.getName())).thenReturn(Optional.empty()).thenReturn(Optional.of(hoth));
+        when(planetRepository.findById(hoth.getId())).thenReturn(Optional.empty()).thenReturn(Optional.of(hoth));
+        when(planetRepository.insertIfAbsent(hoth)).thenReturn(Optional.of(hoth));
+
+        planetService.findByName(hoth.getName());
+        planetService.get(hoth.getId());
+        planetService.create(hoth);
+
+        assertThat(planetService.findByName(hoth.getName())).contains(hoth);
+        assertThat(planetService.get(hoth.getId())).contains(hoth);
+    }
+
+    @Test
+    void createPlanet_AfterCachedMissWithOtherCase_InvalidatesName() {
+        Planet hoth = new Planet(10L, "Hoth", "frozen", "tundra");
+        when(planetRepository.findByName("hoth")).thenReturn(Optional.empty()).thenReturn(Optional.of(hoth));
+        when(planetRepository.findById(hoth.getId())).thenReturn(Optional.of(hoth));
+        when(planetRepository.insertIfAbsent(hoth)).thenReturn(Optional.of(hoth));
+
+        planetService.findByName("hoth");
+        planetService.create(hoth);
+
+        assertThat(planetService.findByName("hoth")).contains(hoth);
+        assertThat(planetService.findByName("HOTH")).contains(hoth);
+        verify(planetRepository, times(2)).findByName("hoth");
+        verify(planetRepository, never()).findByName("HOTH");
+    }
+
+    @Test
+    void removePlanet_AfterCachedHit_InvalidatesPlanet() {
+        when(planetRepository.findByName(TATOOINE.getName())).thenReturn(Optional.of(TATOOINE));
+        when(planetRepository.findById(TATOOINE.getId())).thenReturn(Optional.of(TATOOINE)).thenReturn(Optional.empty());
+        planetService.findByName(TATOOINE.getName());
+        planetService.get(TATOOINE.getId());
+        when(planetRepository.deleteRow(TATOOINE.getId())).thenReturn(1);
+
+        planetService.remove(TATOOINE.getId());
+
+        assertThat(planetService.get(TATOOINE.getId())).isEmpty();
+        assertThat(planetService.findByName(TATOOINE.getName())).isEmpty();
+    }
+
+    @Test
+    void createPlanet_InTransaction_InvalidatesCacheOnlyAfterCommit() {
+        Planet hoth = new Planet(10L, "Hoth", "frozen", "tundra");
+        when(planetRepository.insertIfAbsent(hoth)).thenReturn(Optional.of(hoth));
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> planetService.create(hoth));
+
+        verify(planetCache, never()).invalidate(any(), any());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(planetCache).invalidate(hoth.getId(), hoth.getName());
+    }
+
+    @Test
+    void upsertPlanet_WithChangedDataInTransaction_InvalidatesCacheOnlyAfterCommit() {
+        Planet updated = new Planet(1L, TATOOINE.getName(), "arid, hot", "desert");
+        when(planetRepository.updateIfChanged(TATOOINE.getName(), "arid, hot", "desert")).thenReturn(1);
+        when(planetRepository.findByName(TATOOINE.getName())).thenReturn(Optional.of(updated));
+
+        List<TransactionSynchronization> synchronizations = inTransaction(
+            () -> planetService.upsert(TATOOINE.getName(), new Planet(null, "arid, hot", "desert")));
+
+        verify(planetCache, never()).invalidate(any(), any());
+        verify(singleFlight, never()).forget(any());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(planetCache).invalidate(updated.getId(), updated.getName());
+        verify(singleFlight).forget("list");
+    }
+
+    @Test
+    void removePlanet_InRolledBackTransaction_KeepsCachedPlanet() {
+        when(planetRepository.findById(TATOOINE.getId())).thenReturn(Optional.of(TATOOINE));
+        planetService.get(TATOOINE.getId());
+        when(planetRepository.deleteRow(TATOOINE.getId())).thenReturn(1);
+        when(planetRepository.deleteRows(Set.of(TATOOINE.getId()))).thenReturn(1);
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> {
+            planetService.remove(TATOOINE.getId());
+            planetService.removeAll(List.of(TATOOINE.getId()));
+        });
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(planetCache, never()).invalidate(any(), any());
+        verify(singleFlight, never()).forget(any());
+        assertThat(planetService.get(TATOOINE.getId())).contains(TATOOINE);
+    }
+
     @Test
     void listPlanets_ReturnAllPlanets() {
-        List<Planet> planets = List.of(PLANET);
-        Example<Planet> query = QueryBuilder.makeQuery(new Planet(PLANET.getTerrain(), PLANET.getClimate()));
-        when(planetRepository.findAll(query)).thenReturn(planets);
+        List<PlanetView> planets = List.of(PlanetView.of(PLANET));
+        Specification<Planet> query = QueryBuilder.makeQuery(new Planet(PLANET.getTerrain(), PLANET.getClimate()));
+        when(planetRepository.findViews(query, Set.copyOf(PlanetView.FIELDS))).thenReturn(planets);
 
-        List<Planet> sut = planetService.list(PLANET.getTerrain(), PLANET.getClimate());
+        List<PlanetView> sut = planetService.list(PLANET.getTerrain(), PLANET.getClimate());
         assertThat(sut)
                 .isNotEmpty()
                 .hasSize(1)
-                .containsExactly(PLANET);
+                .containsExactly(PlanetView.of(PLANET));
+        assertThat(meterRegistry.get("planet.service.list.size").summary().totalAmount()).isEqualTo(1);
     }
 
     @Test
     void listPlanets_ReturnNoPlanets() {
-        when(planetRepository.findAll(any(Example.class))).thenReturn(Collections.EMPTY_LIST);
-        List<Planet> sut = planetService.list(PLANET.getTerrain(), PLANET.getClimate());
+        when(planetRepository.findViews(ArgumentMatchers.<Specification<Planet>>any(), anySet())).thenReturn(List.of());
+        List<PlanetView> sut = planetService.list(PLANET.getTerrain(), PLANET.getClimate());
         assertThat(sut).isEmpty();
     }
 
+    @Test
+    void listPlanets_WithFields_SelectsOnlyRequestedColumns() {
+        Specification<Planet> query = QueryBuilder.makeQuery(new Planet(null, null));
+        when(planetRepository.findViews(query, Set.of("id", "name"))).thenReturn(List.of(new PlanetView(1L, "Tatooine", null, null)));
+
+        List<PlanetView> sut = planetService.list(null, null, List.of("NAME", " id"));
+
+        assertThat(sut).containsExactly(new PlanetView(1L, "Tatooine", null, null));
+    }
+
+    @Test
+    void listPlanets_WithConcurrentIdenticalCalls_QueriesOnce() throws Exception {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(planetRepository.findViews(ArgumentMatchers.<Specification<Planet>>any(), anySet())).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(PlanetView.of(TATOOINE));
+        });
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> planetService.list("DESERT", null));
+            querying.await(5, TimeUnit.SECONDS);
+            var second = executor.submit(() -> planetService.list("desert", null));
+            while (meterRegistry.find("planet.service.coalesced").tag("operation", "list").counter() == null) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).containsExactly(PlanetView.of(TATOOINE));
+            assertThat(second.get(5, TimeUnit.SECONDS)).containsExactly(PlanetView.of(TATOOINE));
+        }
+        verify(planetRepository, times(1)).findViews(ArgumentMatchers.<Specification<Planet>>any(), anySet());
+        assertThat(meterRegistry.get("planet.service.coalesced").tag("operation", "list").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void listPlanets_AfterCreate_DoesNotShareQueryStartedBefore() {
+        when(planetRepository.insertIfAbsent(PLANET)).thenReturn(Optional.of(PLANET));
+        planetService.create(PLANET);
+        verify(singleFlight).forget("list");
+    }
+
+    @Test
+    void getPlanet_WithSnapshotReady_ReadsFromSnapshotOnly() {
+        when(planetSnapshot.isReady()).thenReturn(true);
+        when(planetSnapshot.get(1L)).thenReturn(Optional.of(TATOOINE));
+        when(planetSnapshot.findByName("Hoth")).thenReturn(Optional.empty());
+
+        assertThat(planetService.get(1L)).contains(TATOOINE);
+        assertThat(planetService.findByName("Hoth")).isEmpty();
+
+        verifyNoInteractions(planetRepository);
+        verify(planetCache, never()).get(any(), any());
+        assertThat(meterRegistry.get("planet.service.not.found").tag("operation", "findByName").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void listPlanets_WithSnapshotReady_ReadsFromSnapshotOnly() {
+        List<PlanetView> views = List.of(new PlanetView(1L, "Tatooine", null, null));
+        PlanetListVersion version = new PlanetListVersion(1, 1L, null);
+        when(planetSnapshot.isReady()).thenReturn(true);
+        when(planetSnapshot.list("desert", null, Set.of("id", "name"))).thenReturn(views);
+        when(planetSnapshot.listVersion("desert", null)).thenReturn(version);
+
+        assertThat(planetService.list("desert", null, List.of("name", "id"))).isEqualTo(views);
+        assertThat(planetService.listVersion("desert", null)).isEqualTo(version);
+
+        verifyNoInteractions(planetRepository);
+    }
+
+    @Test
+    void facets_WithFilters_SumsGroupCountsByToken() {
+        when(planetRepository.countByTerrainAndClimate(null, "temperate")).thenReturn(List.of(
+            new PlanetGroupCount("grasslands, mountains", "temperate", 2),
+            new PlanetGroupCount("mountains", "temperate, tropical", 3)));
+
+        PlanetFacets sut = planetService.facets(null, "Temperate");
+
+        assertThat(sut.count()).isEqualTo(5);
+        assertThat(sut.terrain()).containsExactly(entry("grasslands", 2L), entry("mountains", 5L));
+        assertThat(sut.climate()).containsExactly(entry("temperate", 5L), entry("tropical", 3L));
+    }
+
+    @Test
+    void countAndFacets_WithSnapshotReady_ReadFromSnapshotOnly() {
+        when(planetSnapshot.isReady()).thenReturn(true);
+        when(planetSnapshot.count("desert", null)).thenReturn(1L);
+        when(planetSnapshot.countByTerrainAndClimate("desert", null)).thenReturn(List.of(new PlanetGroupCount("desert", "arid", 1)));
+
+        assertThat(planetService.count("desert", null)).isEqualTo(1);
+        assertThat(planetService.facets("desert", null)).isEqualTo(new PlanetFacets(1, Map.of("desert", 1L), Map.of("arid", 1L)));
+
+        verifyNoInteractions(planetRepository);
+    }
+
+    @Test
+    void listPlanets_WithUnknownField_ThrowsException() {
+        assertThatThrownBy(() -> planetService.list(null, null, List.of("id", "population")))
+            .isInstanceOf(CampoInvalidoException.class)
+            .hasMessageContaining("population");
+    }
+
+    @Test
+    void listPlanets_ByTokens_ReturnsPlanetsFromIndexOrderedById() {
+        Roaring64Bitmap ids = Roaring64Bitmap.bitmapOf(TATOOINE.getId(), ALDERAAN.getId());
+        when(planetTokenIndex.match(Set.of("desert", "mountains"), Set.of(), TokenMatch.ANY)).thenReturn(ids);
+        when(planetRepository.findAllById(List.of(TATOOINE.getId(), ALDERAAN.getId()))).thenReturn(List.of(ALDERAAN, TATOOINE));
+
+        List<Planet> sut = planetService.listByTokens("Desert, mountains", null, TokenMatch.ANY);
+        assertThat(sut).containsExactly(TATOOINE, ALDERAAN);
+    }
+
+    @Test
+    void listPlanets_ByTokensWithoutMatches_DoesNotQueryRepository() {
+        when(planetTokenIndex.match(Set.of("ocean"), Set.of(), TokenMatch.ALL)).thenReturn(new Roaring64Bitmap());
+        assertThat(planetService.listByTokens("ocean", null, TokenMatch.ALL)).isEmpty();
+        verifyNoInteractions(planetRepository);
+    }
+
+    @Test
+    void listPlanets_ByTokensWithoutTokens_ThrowsException() {
+        assertThatThrownBy(() -> planetService.listByTokens(" , ", null, TokenMatch.ANY))
+            .isInstanceOf(TokenAusenteException.class);
+        verifyNoInteractions(planetTokenIndex, planetRepository);
+    }
+
+    @Test
+    void listPlanets_ByTokensWithManyMatches_QueriesInChunks() {
+        Roaring64Bitmap ids = new Roaring64Bitmap();
+        ids.addRange(1, PlanetService.MAX_IDS_PER_QUERY + 2);
+        when(planetTokenIndex.match(Set.of("desert"), Set.of(), TokenMatch.ALL)).thenReturn(ids);
+        when(planetRepository.findAllById(anyList())).thenAnswer(invocation -> ((List<Long>) invocation.getArgument(0)).stream()
+            .map(id -> new Planet(id, "planet-" + id, "arid", "desert"))
+            .toList().reversed());
+
+        List<Planet> sut = planetService.listByTokens("desert", null, TokenMatch.ALL);
+
+        ArgumentCaptor<List<Long>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(planetRepository, times(2)).findAllById(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(PlanetService.MAX_IDS_PER_QUERY, 1);
+        assertThat(sut).extracting(Planet::getId).isSorted().hasSize(PlanetService.MAX_IDS_PER_QUERY + 1);
+    }
+
+    @Test
+    void searchPlanets_WithLimitAboveMaximum_ClampsLimit() {
+        PlanetNameMatch match = new PlanetNameMatch(TATOOINE.getId(), TATOOINE.getName(), PlanetNameMatch.Match.EXACT, 0);
+        when(planetNameIndex.search("tatooine", PlanetService.MAX_SEARCH_SIZE)).thenReturn(List.of(match));
+
+        assertThat(planetService.search("tatooine", 5000)).containsExactly(match);
+        verifyNoInteractions(planetRepository);
+    }
+
+    @Test
+    void pagePlanets_WithMoreResults_ReturnsNextCursor() {
+        when(planetRepository.findPage(0L, null, null, Limit.of(3))).thenReturn(PLANETS);
+        PlanetPage sut = planetService.page(null, null, null, 2);
+        assertThat(sut.items()).containsExactly(TATOOINE, ALDERAAN);
+        assertThat(PlanetCursor.decode(sut.next())).isEqualTo(ALDERAAN.getId());
+    }
+
+    @Test
+    void pagePlanets_WithLastPage_ReturnsNoCursor() {
+        when(planetRepository.findPage(1L, null, null, Limit.of(3))).thenReturn(List.of(ALDERAAN));
+        PlanetPage sut = planetService.page(null, null, PlanetCursor.encode(1L), 2);
+        assertThat(sut.items()).containsExactly(ALDERAAN);
+        assertThat(sut.next()).isNull();
+    }
+
+    @Test
+    void streamPlanets_DetachesEveryPlanet() {
+        when(planetRepository.streamByFilter(null, null)).thenReturn(PLANETS.stream());
+        List<Planet> sut = new ArrayList<>();
+        planetService.stream(null, null, sut::add);
+        assertThat(sut).containsExactlyElementsOf(PLANETS);
+        PLANETS.forEach(planet -> verify(entityManager).detach(planet));
+    }
+
     @Test
     void removePlanet_ByExistingId_DoesNotThrowAnyException() {
-        assertThatCode(() -> planetService.remove(anyLong())).doesNotThrowAnyException();
+        when(planetRepository.deleteRow(1L)).thenReturn(1);
+        assertThatCode(() -> planetService.remove(1L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void removePlanet_ByExistingId_PublishesRemovedEvent() {
+        when(planetRepository.deleteRow(1L)).thenReturn(1);
+        planetService.remove(1L);
+        verify(eventPublisher).publishEvent(new PlanetRemovedEvent(1L));
+    }
+
+    @Test
+    void removePlanet_ByExistingId_RecordsRemovedChange() {
+        when(planetRepository.deleteRow(1L)).thenReturn(1);
+        planetService.remove(1L);
+        verify(planetOutbox).recordRemoved(1L);
+    }
+
+    @Test
+    void removePlanet_ByUnexistingId_RecordsNoChange() {
+        when(planetRepository.deleteRow(1L)).thenReturn(0);
+        assertThatThrownBy(() -> planetService.remove(1L)).isInstanceOf(PlanetNaoEncontradaException.class);
+        verify(planetOutbox, never()).recordRemoved(anyLong());
+    }
+
+    @Test
+    void removePlanet_ByUnexistingId_ThrowsNotFound() {
+        when(planetRepository.deleteRow(1L)).thenReturn(0);
+        assertThatThrownBy(() -> planetService.remove(1L)).isInstanceOf(PlanetNaoEncontradaException.class);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    void removePlanet_ByUnexistingId_DoesNotThrowAnyException() {
-        doThrow(RuntimeException.class).when(planetRepository).deleteById(1L);
-        assertThatThrownBy(() -> planetService.remove(1L)).isInstanceOf(RuntimeException.class);
+    void removePlanet_ByUnexistingId_CountsDeleteMiss() {
+        assertThatThrownBy(() -> planetService.remove(1L)).isInstanceOf(PlanetNaoEncontradaException.class);
+        assertThat(meterRegistry.get("planet.service.delete.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void removePlanets_ByIds_DeletesInOneStatementAndEvictsCache() {
+        when(planetRepository.findById(TATOOINE.getId())).thenReturn(Optional.of(TATOOINE)).thenReturn(Optional.empty());
+        planetService.get(TATOOINE.getId());
+        when(planetRepository.deleteRows(Set.of(1L, 2L))).thenReturn(1);
+
+        int sut = planetService.removeAll(List.of(1L, 2L, 1L));
+
+        assertThat(sut).isEqualTo(1);
+        assertThat(planetService.get(TATOOINE.getId())).isEmpty();
+        verify(eventPublisher).publishEvent(new PlanetRemovedEvent(1L));
+        verify(eventPublisher).publishEvent(new PlanetRemovedEvent(2L));
+    }
+
+    @Test
+    void removePlanets_ByIds_RecordsExistingIdsBeforeDeleting() {
+        when(planetRepository.deleteRows(Set.of(1L, 2L))).thenReturn(2);
+
+        planetService.removeAll(List.of(1L, 2L));
+
+        InOrder inOrder = inOrder(planetOutbox, planetRepository);
+        inOrder.verify(planetOutbox).recordRemoved(Set.of(1L, 2L));
+        inOrder.verify(planetRepository).deleteRows(Set.of(1L, 2L));
+    }
+
+    @Test
+    void listChanges_FromCursor_ReturnsChangesAndCursorOfLastChange() {
+        List<PlanetChange> changes = List.of(
+            new PlanetChange(6, PlanetChange.Type.CREATED, 1L, "Tatooine", "arid", "desert", Instant.EPOCH),
+            new PlanetChange(7, PlanetChange.Type.REMOVED, 1L, null, null, null, Instant.EPOCH));
+        when(planetOutbox.since(5L, 2)).thenReturn(changes);
+
+        PlanetChangePage sut = planetService.changes(PlanetCursor.encode(5L), 2);
+
+        assertThat(sut.changes()).isEqualTo(changes);
+        assertThat(PlanetCursor.decode(sut.next())).isEqualTo(7L);
+    }
+
+    @Test
+    void listChanges_WithoutNewChanges_KeepsCursor() {
+        when(planetOutbox.since(anyLong(), anyInt())).thenReturn(List.of());
+
+        assertThat(PlanetCursor.decode(planetService.changes(PlanetCursor.encode(9L), 100).next())).isEqualTo(9L);
+        assertThat(PlanetCursor.decode(planetService.changes(null, 100).next())).isZero();
+        verify(planetOutbox).since(0L, 100);
+    }
+
+    @Test
+    void removePlanets_ByUnexistingIds_ThrowsNotFound() {
+        assertThatThrownBy(() -> planetService.removeAll(List.of(998L, 999L))).isInstanceOf(PlanetNaoEncontradaException.class);
+    }
+
+    /**
+     * Roda {@code action} com a sincronização de transação ativa e devolve o que foi registrado para o commit.
+     */
+    private void runBatches() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(planetSnapshot).inBatch(any());
+    }
+
+    private static List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 }
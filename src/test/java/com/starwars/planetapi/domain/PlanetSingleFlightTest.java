@@ -0,0 +1,131 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.exception.EsperaEsgotadaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanetSingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PlanetSingleFlight singleFlight = new PlanetSingleFlight(meterRegistry, Duration.ofMillis(200));
+
+    @Test
+    void run_WithConcurrentSameKey_SharesOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> singleFlight.run("list", "desert", blocking(calls, release, () -> "Tatooine")));
+            waitUntilCalled(calls);
+            Future<String> second = executor.submit(() -> singleFlight.run("list", "desert", () -> "outra consulta"));
+            waitUntilCoalesced();
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Tatooine");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("Tatooine");
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void run_WhenCallFails_SharesFailureAndRunsAgainNextTime() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> singleFlight.run("list", "desert", blocking(calls, release, () -> {
+                throw new IllegalStateException("banco indisponível");
+            })));
+            waitUntilCalled(calls);
+            Future<String> second = executor.submit(() -> singleFlight.run("list", "desert", () -> "outra consulta"));
+            waitUntilCoalesced();
+            release.countDown();
+
+            assertThatThrownBy(first::get).hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(second::get).hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(singleFlight.run("list", "desert", () -> "Tatooine")).isEqualTo("Tatooine");
+    }
+
+    @Test
+    void run_WithDifferentKeys_DoesNotWait() {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> singleFlight.run("list", "desert", blocking(calls, release, () -> "Tatooine")));
+            waitUntilCalled(calls);
+
+            assertThat(singleFlight.run("list", "jungle", () -> "Yavin IV")).isEqualTo("Yavin IV");
+            release.countDown();
+        }
+    }
+
+    @Test
+    void run_WhenCallTakesLongerThanMaxWait_FailsWaiter() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> singleFlight.run("list", "desert", blocking(calls, release, () -> "Tatooine")));
+            waitUntilCalled(calls);
+
+            assertThatThrownBy(() -> singleFlight.run("list", "desert", () -> "outra consulta"))
+                .isInstanceOf(EsperaEsgotadaException.class);
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Tatooine");
+        }
+        assertThat(meterRegistry.get("planet.service.coalesced.timeouts").tag("operation", "list").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void run_AfterForget_RunsNewCall() {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> singleFlight.run("list", "desert", blocking(calls, release, () -> "antes da escrita")));
+            waitUntilCalled(calls);
+            singleFlight.forget("list");
+
+            assertThat(singleFlight.run("list", "desert", () -> "depois da escrita")).isEqualTo("depois da escrita");
+            release.countDown();
+        }
+        assertThat(meterRegistry.find("planet.service.coalesced").counter()).isNull();
+    }
+
+    private static <T> Supplier<T> blocking(AtomicInteger calls, CountDownLatch release, Supplier<T> result) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private static void waitUntilCalled(AtomicInteger calls) {
+        while (calls.get() == 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void waitUntilCoalesced() throws InterruptedException {
+        while (meterRegistry.find("planet.service.coalesced").counter() == null) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.starwars.planetapi.domain;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:snapshot;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa", "spring.datasource.password=",
+    "planet.snapshot.enabled=true"
+})
+class PlanetSnapshotServingTest {
+
+    @Autowired private PlanetService planetService;
+    @Autowired private PlanetSnapshot planetSnapshot;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void reads_AfterWrites_ComeFromSnapshotWithoutQueries() {
+        assertThat(planetSnapshot.isReady()).isTrue();
+        Planet hoth = planetService.create(new Planet("Hoth", "frozen", "tundra"));
+        Planet endor = planetService.create(new Planet("Endor", "temperate", "forests"));
+        planetService.upsert("Endor", new Planet(null, "temperate", "forests, mountains"));
+        planetService.remove(hoth.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(planetService.get(hoth.getId())).isEmpty();
+        assertThat(planetService.findByName("Endor")).get().extracting(Planet::getTerrain).isEqualTo("forests, mountains");
+        assertThat(planetService.get(endor.getId())).get().extracting(Planet::getVersion).isEqualTo(1L);
+        assertThat(planetService.list("Forests, Mountains", "temperate"))
+            .containsExactly(new PlanetView(endor.getId(), "Endor", "temperate", "forests, mountains"));
+        assertThat(planetService.list(null, null, List.of("name"))).containsExactly(new PlanetView(null, "Endor", null, null));
+        assertThat(planetService.listVersion(null, null).count()).isEqualTo(1);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        planetService.remove(endor.getId());
+    }
+}
@@ -0,0 +1,275 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlanetSnapshotTest {
+
+    private static final Set<String> ALL_FIELDS = Set.copyOf(PlanetView.FIELDS);
+
+    private static final Planet TATOOINE = planet(1L, "Tatooine", "arid", "desert", "2024-01-01T00:00:00Z");
+    private static final Planet ALDERAAN = planet(2L, "Alderaan", "temperate", "grasslands, mountains", "2024-01-03T00:00:00Z");
+    private static final Planet NABOO = planet(3L, "Naboo", "Temperate", "grassy hills", "2024-01-02T00:00:00Z");
+
+    @Mock
+    private PlanetRepository planetRepository;
+
+    private PlanetSnapshot planetSnapshot;
+
+    @BeforeEach
+    void beforeEach() {
+        planetSnapshot = new PlanetSnapshot(planetRepository, true);
+    }
+
+    @Test
+    void load_WhenDisabled_KeepsReadsOnDatabase() {
+        PlanetSnapshot disabled = new PlanetSnapshot(planetRepository, false);
+        disabled.load();
+
+        assertThat(disabled.isReady()).isFalse();
+        verify(planetRepository, never()).findPage(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void load_WithMorePlanetsThanOnePage_ReadsEveryPage() {
+        List<Planet> firstPage = LongStream.rangeClosed(1, 1000).mapToObj(id -> new Planet(id, "Planet " + id, "arid", "desert")).toList();
+        when(planetRepository.findPage(0L, null, null, Limit.of(1000))).thenReturn(firstPage);
+        when(planetRepository.findPage(1000L, null, null, Limit.of(1000))).thenReturn(List.of(new Planet(1001L, "Planet 1001", "arid", "desert")));
+
+        planetSnapshot.load();
+
+        assertThat(planetSnapshot.isReady()).isTrue();
+        assertThat(planetSnapshot.get(1001L)).isPresent();
+        assertThat(planetSnapshot.list("desert", null, ALL_FIELDS)).hasSize(1001);
+    }
+
+    @Test
+    void getAndFindByName_AfterLoad_ReturnPlanetsFromMemory() {
+        loadDefault();
+
+        assertThat(planetSnapshot.get(2L)).contains(ALDERAAN);
+        assertThat(planetSnapshot.get(99L)).isEmpty();
+        assertThat(planetSnapshot.findByName("Naboo")).contains(NABOO);
+        assertThat(planetSnapshot.findByName("naboo")).contains(NABOO);
+        assertThat(planetSnapshot.findByName("Hoth")).isEmpty();
+    }
+
+    @Test
+    void list_WithFilters_MatchesIgnoringCaseOrderedById() {
+        loadDefault();
+
+        assertThat(planetSnapshot.list(null, null, ALL_FIELDS)).extracting(PlanetView::id).containsExactly(1L, 2L, 3L);
+        assertThat(planetSnapshot.list(null, "TEMPERATE", ALL_FIELDS)).extracting(PlanetView::id).containsExactly(2L, 3L);
+        assertThat(planetSnapshot.list("Grassy Hills", "temperate", ALL_FIELDS)).extracting(PlanetView::id).containsExactly(3L);
+        assertThat(planetSnapshot.list("desert", "temperate", ALL_FIELDS)).isEmpty();
+        assertThat(planetSnapshot.list("grasslands", null, ALL_FIELDS)).isEmpty();
+    }
+
+    @Test
+    void list_WithSelectedFields_LeavesOtherFieldsNull() {
+        loadDefault();
+
+        assertThat(planetSnapshot.list("desert", null, Set.of("id", "name")))
+            .containsExactly(new PlanetView(1L, "Tatooine", null, null));
+    }
+
+    @Test
+    void listVersion_WithFilters_AggregatesCountMaxIdAndLastModified() {
+        loadDefault();
+
+        assertThat(planetSnapshot.listVersion(null, "temperate"))
+            .isEqualTo(new PlanetListVersion(2, 3L, Instant.parse("2024-01-03T00:00:00Z")));
+        assertThat(planetSnapshot.listVersion("swamp", null)).isEqualTo(new PlanetListVersion(0, null, null));
+    }
+
+    @Test
+    void countByTerrainAndClimate_WithFilters_CountsEachPairIgnoringCase() {
+        loadDefault();
+
+        assertThat(planetSnapshot.countByTerrainAndClimate(null, "TEMPERATE")).containsExactlyInAnyOrder(
+            new PlanetGroupCount("grasslands, mountains", "temperate", 1),
+            new PlanetGroupCount("grassy hills", "temperate", 1));
+        assertThat(planetSnapshot.countByTerrainAndClimate(null, null)).hasSize(3);
+        assertThat(planetSnapshot.countByTerrainAndClimate("swamp", null)).isEmpty();
+        assertThat(planetSnapshot.count(null, "temperate")).isEqualTo(2);
+        assertThat(planetSnapshot.count("swamp", null)).isZero();
+    }
+
+    @Test
+    void onCreatedAndRemoved_AfterLoad_PublishNewVersion() {
+        loadDefault();
+        Planet hoth = planet(4L, "Hoth", "frozen", "tundra", "2024-01-04T00:00:00Z");
+        when(planetRepository.findAllById(List.of(4L))).thenReturn(List.of(hoth));
+
+        planetSnapshot.onCreated(new PlanetCreatedEvent(new Planet(4L, "Hoth", "frozen", "tundra")));
+        planetSnapshot.onRemoved(new PlanetRemovedEvent(1L));
+
+        // O planeta vem relido do banco, com a data de modificação.
+        assertThat(planetSnapshot.get(4L)).get().extracting(Planet::getLastModified).isEqualTo(hoth.getLastModified());
+        assertThat(planetSnapshot.findByName("Tatooine")).isEmpty();
+        assertThat(planetSnapshot.list(null, null, ALL_FIELDS)).extracting(PlanetView::id).containsExactly(2L, 3L, 4L);
+        assertThat(planetSnapshot.list("desert", null, ALL_FIELDS)).isEmpty();
+    }
+
+    @Test
+    void onCreatedAndRemoved_InTransaction_ApplyOnceAfterCommit() {
+        loadDefault();
+        Planet hoth = planet(4L, "Hoth", "frozen", "tundra", "2024-01-04T00:00:00Z");
+        Planet endor = planet(5L, "Endor", "temperate", "forests", "2024-01-05T00:00:00Z");
+        when(planetRepository.findAllById(List.of(4L, 5L))).thenReturn(List.of(endor, hoth));
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> {
+            planetSnapshot.onCreated(new PlanetCreatedEvent(hoth));
+            planetSnapshot.onCreated(new PlanetCreatedEvent(endor));
+            planetSnapshot.onRemoved(new PlanetRemovedEvent(1L));
+        });
+
+        assertThat(planetSnapshot.get(4L)).isEmpty();
+        assertThat(planetSnapshot.get(1L)).isPresent();
+        synchronizations.forEach(synchronization -> {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        });
+
+        assertThat(planetSnapshot.list(null, null, ALL_FIELDS)).extracting(PlanetView::id).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(planetSnapshot.list(null, "temperate", ALL_FIELDS)).extracting(PlanetView::id).containsExactly(2L, 3L, 5L);
+        assertThat(planetSnapshot.findByName("ENDOR")).contains(endor);
+        verify(planetRepository).findAllById(anyIterable());
+    }
+
+    @Test
+    void onCreated_InRolledBackTransaction_KeepsCurrentVersion() {
+        loadDefault();
+
+        inTransaction(() -> planetSnapshot.onRemoved(new PlanetRemovedEvent(1L)))
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(planetSnapshot.get(1L)).contains(TATOOINE);
+        assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+    }
+
+    @Test
+    void inBatch_WithManyCreatedPlanets_ReadsThemInOneQuery() {
+        loadDefault();
+        List<Planet> created = LongStream.rangeClosed(4, 1000)
+            .mapToObj(id -> planet(id, "Planet " + id, "arid", "desert", "2024-01-04T00:00:00Z")).toList();
+        when(planetRepository.findAllById(created.stream().map(Planet::getId).toList())).thenReturn(created);
+
+        planetSnapshot.inBatch(() -> created.forEach(planet -> planetSnapshot.onCreated(new PlanetCreatedEvent(planet))));
+
+        assertThat(planetSnapshot.list("desert", "arid", ALL_FIELDS)).hasSize(998);
+        verify(planetRepository).findAllById(anyIterable());
+    }
+
+    @Test
+    void onUpdated_WithNewTerrain_MovesPlanetBetweenFilters() {
+        loadDefault();
+        Planet updated = planet(1L, "Tatooine", "arid", "canyons", "2024-02-01T00:00:00Z");
+        when(planetRepository.findAllById(List.of(1L))).thenReturn(List.of(updated));
+
+        planetSnapshot.onUpdated(new PlanetUpdatedEvent(updated));
+
+        assertThat(planetSnapshot.list("desert", null, ALL_FIELDS)).isEmpty();
+        assertThat(planetSnapshot.list("canyons", "arid", ALL_FIELDS)).extracting(PlanetView::id).containsExactly(1L);
+        assertThat(planetSnapshot.get(1L)).contains(updated);
+    }
+
+    @Test
+    void onCreated_DuringLoad_IsAppliedOverTheLoadedPage() {
+        Planet hoth = planet(4L, "Hoth", "frozen", "tundra", "2024-01-04T00:00:00Z");
+        when(planetRepository.findAllById(List.of(4L))).thenReturn(List.of(hoth));
+        when(planetRepository.findPage(0L, null, null, Limit.of(1000))).thenAnswer(invocation -> {
+            // Commit que termina depois da página já lida: a releitura fica guardada até a carga publicar.
+            planetSnapshot.onCreated(new PlanetCreatedEvent(hoth));
+            return List.of(NABOO, TATOOINE, ALDERAAN);
+        });
+
+        planetSnapshot.load();
+
+        assertThat(planetSnapshot.list(null, null, ALL_FIELDS)).extracting(PlanetView::id).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(planetSnapshot.listVersion(null, null).lastModified()).isEqualTo(hoth.getLastModified());
+    }
+
+    @Test
+    void onUpdated_WhenOlderRereadFinishesLast_KeepsNewerPlanet() {
+        loadDefault();
+        Planet older = planet(1L, "Tatooine", "arid", "dunes", "2024-02-01T00:00:00Z");
+        Planet newer = planet(1L, "Tatooine", "arid", "canyons", "2024-03-01T00:00:00Z");
+        when(planetRepository.findAllById(List.of(1L)))
+            .thenAnswer(invocation -> {
+                // Outra alteração do mesmo planeta começa e termina enquanto esta releitura está no banco.
+                planetSnapshot.onUpdated(new PlanetUpdatedEvent(newer));
+                return List.of(older);
+            })
+            .thenReturn(List.of(newer));
+
+        planetSnapshot.onUpdated(new PlanetUpdatedEvent(older));
+
+        assertThat(planetSnapshot.get(1L)).contains(newer);
+        assertThat(planetSnapshot.list("dunes", null, ALL_FIELDS)).isEmpty();
+        assertThat(planetSnapshot.list("canyons", null, ALL_FIELDS)).extracting(PlanetView::id).containsExactly(1L);
+    }
+
+    @Test
+    void listVersion_AfterRemovingNewestPlanet_RecomputesLastModified() {
+        loadDefault();
+
+        planetSnapshot.onRemoved(new PlanetRemovedEvent(2L));
+
+        assertThat(planetSnapshot.listVersion(null, "temperate"))
+            .isEqualTo(new PlanetListVersion(1, 3L, Instant.parse("2024-01-02T00:00:00Z")));
+    }
+
+    @Test
+    void onCreated_BeforeLoad_IsLeftToTheLoad() {
+        planetSnapshot.onCreated(new PlanetCreatedEvent(TATOOINE));
+
+        assertThat(planetSnapshot.isReady()).isFalse();
+        verify(planetRepository, never()).findAllById(anyIterable());
+    }
+
+    private void loadDefault() {
+        when(planetRepository.findPage(0L, null, null, Limit.of(1000))).thenReturn(List.of(NABOO, TATOOINE, ALDERAAN));
+        planetSnapshot.load();
+    }
+
+    private static List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Planet planet(Long id, String name, String climate, String terrain, String lastModified) {
+        Planet planet = new Planet(id, name, climate, terrain);
+        planet.setVersion(0L);
+        planet.setLastModified(Instant.parse(lastModified));
+        return planet;
+    }
+}
@@ -0,0 +1,99 @@
+package com.starwars.planetapi.domain;
+
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import com.starwars.planetapi.domain.event.PlanetUpdatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlanetTokenIndexTest {
+
+    private static final Planet TATOOINE = new Planet(1L, "Tatooine", "arid", "desert");
+    private static final Planet ALDERAAN = new Planet(2L, "Alderaan", "temperate", "grasslands, mountains");
+    private static final Planet YAVINIV = new Planet(3L, "Yavin IV", "temperate, tropical", "jungle, rainforests");
+
+    @InjectMocks
+    private PlanetTokenIndex planetTokenIndex;
+
+    @Mock
+    private PlanetRepository planetRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        when(planetRepository.findPage(0L, null, null, Limit.of(1000))).thenReturn(List.of(TATOOINE, ALDERAAN, YAVINIV));
+        planetTokenIndex.warmUp();
+    }
+
+    @Test
+    void matchTokens_WithAnyOf_ReturnsUnion() {
+        assertThat(ids(Set.of("mountains", "jungle"), Set.of(), TokenMatch.ANY)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void matchTokens_WithAllOf_ReturnsIntersection() {
+        assertThat(ids(Set.of(), Set.of("temperate", "tropical"), TokenMatch.ALL)).containsExactly(3L);
+        assertThat(ids(Set.of("grasslands", "jungle"), Set.of(), TokenMatch.ALL)).isEmpty();
+    }
+
+    @Test
+    void matchTokens_AcrossTerrainAndClimate_CombinesWithAnd() {
+        assertThat(ids(Set.of("mountains", "desert"), Set.of("temperate"), TokenMatch.ANY)).containsExactly(2L);
+    }
+
+    @Test
+    void matchTokens_WithoutTokens_ReturnsEveryPlanet() {
+        assertThat(ids(Set.of(), Set.of(), TokenMatch.ALL)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void matchTokens_WithUnknownToken_ReturnsEmpty() {
+        assertThat(ids(Set.of("ocean"), Set.of(), TokenMatch.ANY)).isEmpty();
+    }
+
+    @Test
+    void matchTokens_AfterCreateAndRemove_KeepsIndexInSync() {
+        planetTokenIndex.onCreated(new PlanetCreatedEvent(new Planet(4L, "Endor", "temperate", "forests, mountains")));
+        planetTokenIndex.onRemoved(new PlanetRemovedEvent(ALDERAAN.getId()));
+
+        assertThat(ids(Set.of("mountains"), Set.of(), TokenMatch.ANY)).containsExactly(4L);
+        assertThat(ids(Set.of("grasslands"), Set.of(), TokenMatch.ANY)).isEmpty();
+    }
+
+    @Test
+    void matchTokens_AfterUpdate_ReplacesOldTokens() {
+        planetTokenIndex.onUpdated(new PlanetUpdatedEvent(new Planet(TATOOINE.getId(), TATOOINE.getName(), "arid", "canyons")));
+
+        assertThat(ids(Set.of("canyons"), Set.of(), TokenMatch.ANY)).containsExactly(TATOOINE.getId());
+        assertThat(ids(Set.of("desert"), Set.of(), TokenMatch.ANY)).isEmpty();
+    }
+
+    @Test
+    void warmUp_WithRemoveCommittedDuringLoad_ReplaysRemoveAfterPage() {
+        PlanetTokenIndex index = new PlanetTokenIndex(planetRepository);
+        // A remoção é confirmada depois de a página ter sido lida, mas antes de ela entrar no índice.
+        when(planetRepository.findPage(0L, null, null, Limit.of(1000))).thenAnswer(invocation -> {
+            index.onRemoved(new PlanetRemovedEvent(ALDERAAN.getId()));
+            return List.of(TATOOINE, ALDERAAN, YAVINIV);
+        });
+
+        index.warmUp();
+
+        assertThat(index.match(Set.of(), Set.of(), TokenMatch.ALL).toArray()).containsExactly(1L, 3L);
+    }
+
+    private long[] ids(Set<String> terrains, Set<String> climates, TokenMatch match) {
+        return planetTokenIndex.match(terrains, climates, match).toArray();
+    }
+}
@@ -0,0 +1,81 @@
+package com.starwars.planetapi.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "planet.outbox.settle-time=PT0S")
+@Import(PlanetOutbox.class)
+class PlanetChangeRelayTest {
+
+    @Autowired private PlanetOutbox planetOutbox;
+    @Autowired private PlanetRepository planetRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void relayBatch_WithPendingChanges_DeliversInBatchesAndAdvancesPosition() {
+        List<Long> ids = recordCreations("Hoth", "Endor", "Naboo");
+        InMemoryPlanetChangeSink sink = new InMemoryPlanetChangeSink();
+        PlanetChangeRelay relay = relay(sink);
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(relay.relayBatch()).isZero();
+
+        assertThat(sink.changes()).extracting(PlanetChange::planetId).containsExactlyElementsOf(ids);
+        assertThat(planetOutbox.lockRelayPosition()).isEqualTo(sink.changes().getLast().seq());
+    }
+
+    @Test
+    void relayBatch_WhenSinkFails_KeepsPosition() {
+        recordCreations("Hoth");
+        PlanetChangeRelay relay = relay(changes -> {
+            throw new IllegalStateException("sink indisponível");
+        });
+
+        assertThatThrownBy(relay::relayBatch).isInstanceOf(IllegalStateException.class);
+        assertThat(planetOutbox.lockRelayPosition()).isZero();
+    }
+
+    @Test
+    void relayBatch_ToFileSink_AppendsOneLinePerChange(@TempDir Path directory) throws Exception {
+        recordCreations("Hoth", "Endor");
+        Path file = directory.resolve("changes.ndjson");
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        relay(new FilePlanetChangeSink(file, objectMapper)).relayBatch();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(1), PlanetChange.class).name()).isEqualTo("Endor");
+    }
+
+    private PlanetChangeRelay relay(PlanetChangeSink sink) {
+        return new PlanetChangeRelay(planetOutbox, sink, new TransactionTemplate(transactionManager), 2, Duration.ofSeconds(1));
+    }
+
+    private List<Long> recordCreations(String... names) {
+        return Arrays.stream(names)
+            .map(name -> planetRepository.saveAndFlush(new Planet(name, "temperate", "forests")))
+            .peek(planetOutbox::recordCreated)
+            .map(Planet::getId)
+            .toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.starwars.planetapi.domain.outbox;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static com.starwars.planetapi.common.PlanetConstants.TATOOINE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "planet.outbox.settle-time=PT0S")
+@Import(PlanetOutbox.class)
+class PlanetOutboxTest {
+
+    private static final Instant OCCURRED_AT = Instant.parse("2024-05-04T12:00:00Z");
+
+    @Autowired private PlanetOutbox planetOutbox;
+    @Autowired private PlanetRepository planetRepository;
+    @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordChanges_InTransaction_ReturnsThemInOrder() {
+        Planet hoth = planetRepository.saveAndFlush(new Planet("Hoth", "frozen", "tundra"));
+
+        planetOutbox.recordCreated(hoth);
+        planetOutbox.recordRemoved(hoth.getId());
+
+        List<PlanetChange> changes = planetOutbox.since(0, 10);
+        assertThat(changes)
+            .extracting(PlanetChange::type, PlanetChange::planetId, PlanetChange::name, PlanetChange::terrain)
+            .containsExactly(
+                tuple(PlanetChange.Type.CREATED, hoth.getId(), "Hoth", "tundra"),
+                tuple(PlanetChange.Type.REMOVED, hoth.getId(), null, null));
+        assertThat(changes.get(1).seq()).isGreaterThan(changes.get(0).seq());
+        assertThat(planetOutbox.since(changes.get(1).seq(), 10)).isEmpty();
+    }
+
+    @Sql(scripts = {"/imports_planets.sql"})
+    @Test
+    void recordChanges_ByNamesAndIds_RecordsOnlyStoredPlanets() {
+        assertThat(planetOutbox.recordCreated(List.of(TATOOINE.getName(), "Hoth"))).isEqualTo(1);
+        assertThat(planetOutbox.recordRemoved(List.of(TATOOINE.getId(), 99L))).isEqualTo(1);
+
+        assertThat(planetOutbox.since(0, 10))
+            .extracting(PlanetChange::type, PlanetChange::planetId, PlanetChange::climate)
+            .containsExactly(
+                tuple(PlanetChange.Type.CREATED, TATOOINE.getId(), TATOOINE.getClimate()),
+                tuple(PlanetChange.Type.REMOVED, TATOOINE.getId(), null));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void recordChange_WithoutTransaction_ThrowsException() {
+        assertThatThrownBy(() -> planetOutbox.recordRemoved(1L)).isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void listChanges_WithRecentGap_StopsBeforeGapUntilItSettles() {
+        insertChange(1001);
+        insertChange(1003);
+
+        PlanetOutbox beforeSettle = outboxAt(OCCURRED_AT.plusSeconds(1));
+        PlanetOutbox afterSettle = outboxAt(OCCURRED_AT.plusSeconds(10));
+
+        assertThat(beforeSettle.since(1000, 10)).extracting(PlanetChange::seq).containsExactly(1001L);
+        assertThat(afterSettle.since(1000, 10)).extracting(PlanetChange::seq).containsExactly(1001L, 1003L);
+    }
+
+    @Test
+    void relayPosition_MovedInTransaction_IsReadBack() {
+        assertThat(planetOutbox.lockRelayPosition()).isZero();
+        planetOutbox.moveRelayPosition(42);
+        assertThat(planetOutbox.lockRelayPosition()).isEqualTo(42);
+    }
+
+    private PlanetOutbox outboxAt(Instant now) {
+        return new PlanetOutbox(jdbcTemplate, Duration.ofSeconds(5), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private void insertChange(long seq) {
+        jdbcTemplate.update("INSERT INTO planet_changes (seq, planet_id, change_type, occurred_at) VALUES (:seq, 1, 'REMOVED', :occurredAt)",
+            Map.of("seq", seq, "occurredAt", Timestamp.from(OCCURRED_AT)));
+    }
+}
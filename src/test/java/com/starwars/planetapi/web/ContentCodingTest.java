@@ -0,0 +1,60 @@
+package com.starwars.planetapi.web;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCodingTest {
+
+    @Test
+    void negotiate_WithAcceptEncoding_PicksHighestWeightPreferringZstd() {
+        assertThat(ContentCoding.negotiate("gzip, deflate, br, zstd")).contains(ContentCoding.ZSTD);
+        assertThat(ContentCoding.negotiate("gzip;q=1.0, zstd;q=0.5")).contains(ContentCoding.GZIP);
+        assertThat(ContentCoding.negotiate("GZIP")).contains(ContentCoding.GZIP);
+        assertThat(ContentCoding.negotiate("br, *;q=0.1")).contains(ContentCoding.ZSTD);
+        assertThat(ContentCoding.negotiate("*, zstd;q=0")).contains(ContentCoding.GZIP);
+    }
+
+    @Test
+    void negotiate_WithoutSupportedCoding_ReturnsEmpty() {
+        assertThat(ContentCoding.negotiate(null)).isEmpty();
+        assertThat(ContentCoding.negotiate("")).isEmpty();
+        assertThat(ContentCoding.negotiate("identity, br")).isEqualTo(Optional.empty());
+        assertThat(ContentCoding.negotiate("gzip;q=0")).isEmpty();
+        assertThat(ContentCoding.negotiate("gzip;q=abc")).isEmpty();
+    }
+
+    @Test
+    void compress_WithEachCoding_RoundTrips() throws IOException {
+        byte[] json = "[{\"id\":1,\"name\":\"Tatooine\",\"climate\":\"arid\",\"terrain\":\"desert\"}]".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decompress(ContentCoding.GZIP, compress(ContentCoding.GZIP, json, 9))).isEqualTo(json);
+        assertThat(decompress(ContentCoding.ZSTD, compress(ContentCoding.ZSTD, json, 3))).isEqualTo(json);
+        assertThat(compress(ContentCoding.ZSTD, json, 3).length).isLessThan(json.length / 10);
+    }
+
+    static byte[] compress(ContentCoding coding, byte[] data, int level) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = coding.compress(compressed, level)) {
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    static byte[] decompress(ContentCoding coding, byte[] data) throws IOException {
+        InputStream in = new ByteArrayInputStream(data);
+        try (InputStream decompressed = coding == ContentCoding.GZIP ? new GZIPInputStream(in) : new ZstdInputStream(in)) {
+            return decompressed.readAllBytes();
+        }
+    }
+}
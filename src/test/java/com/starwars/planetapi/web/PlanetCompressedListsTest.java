@@ -0,0 +1,90 @@
+package com.starwars.planetapi.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static com.starwars.planetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanetCompressedListsTest {
+
+    private static final Set<String> ALL_FIELDS = Set.copyOf(PlanetView.FIELDS);
+    private static final List<PlanetView> MANY = LongStream.rangeClosed(1, 100)
+        .mapToObj(id -> new PlanetView(id, "Planet " + id, "arid", "desert")).toList();
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final PlanetCompressedLists compressedLists = new PlanetCompressedLists(new PlanetJsonConverter(objectMapper, 1000),
+        DataSize.ofKilobytes(2), DataSize.ofMegabytes(1), 6, 3);
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    void get_WithLargeList_CompressesOnceAndServesFromCache() throws IOException {
+        for (ContentCoding coding : ContentCoding.values()) {
+            PlanetCompressedLists.Key key = key("1-1-1", coding);
+
+            PlanetCompressedLists.Body first = compressedLists.get(key, counting(MANY));
+            PlanetCompressedLists.Body second = compressedLists.get(key, counting(MANY));
+
+            assertThat(first.coding()).isEqualTo(coding);
+            assertThat(second).isSameAs(first);
+            assertThat(ContentCodingTest.decompress(coding, first.bytes())).isEqualTo(objectMapper.writeValueAsBytes(MANY));
+        }
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    void get_WithListBelowMinimumSize_KeepsJsonUncompressed() throws IOException {
+        List<PlanetView> views = PLANETS.stream().map(PlanetView::of).toList();
+
+        PlanetCompressedLists.Body body = compressedLists.get(key("3-2-1", ContentCoding.GZIP), counting(views));
+
+        assertThat(body.coding()).isNull();
+        assertThat(body.bytes()).isEqualTo(objectMapper.writeValueAsBytes(views));
+    }
+
+    @Test
+    void get_AfterWriteOrWithNewTag_ReadsListAgain() {
+        compressedLists.get(key("1-1-1", ContentCoding.GZIP), counting(MANY));
+        compressedLists.get(key("2-2-2", ContentCoding.GZIP), counting(MANY));
+        compressedLists.onCreated(new PlanetCreatedEvent(new Planet(101L, "Hoth", "frozen", "tundra")));
+        compressedLists.get(key("2-2-2", ContentCoding.GZIP), counting(MANY));
+
+        assertThat(reads).hasValue(3);
+        assertThat(compressedLists.stats().hitCount()).isZero();
+    }
+
+    @Test
+    void get_WhenListingFails_DoesNotCacheFailure() {
+        PlanetCompressedLists.Key key = key("1-1-1", ContentCoding.ZSTD);
+
+        assertThatThrownBy(() -> compressedLists.get(key, () -> {
+            throw new IllegalStateException("banco fora");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(compressedLists.get(key, counting(MANY)).coding()).isEqualTo(ContentCoding.ZSTD);
+    }
+
+    private Supplier<List<PlanetView>> counting(List<PlanetView> views) {
+        return () -> {
+            reads.incrementAndGet();
+            return views;
+        };
+    }
+
+    private static PlanetCompressedLists.Key key(String tag, ContentCoding coding) {
+        return new PlanetCompressedLists.Key(null, null, ALL_FIELDS, tag, coding);
+    }
+}
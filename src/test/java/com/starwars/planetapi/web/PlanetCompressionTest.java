@@ -0,0 +1,86 @@
+package com.starwars.planetapi.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compressão no servidor de verdade: o {@link HttpClient} não descomprime sozinho, então os bytes conferidos são os
+ * que o Tomcat enviou.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:compression;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa", "spring.datasource.password="
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PlanetCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PlanetService planetService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    void createPlanets() {
+        IntStream.rangeClosed(1, 100).forEach(i -> planetService.create(new Planet("Compressed " + i, "arid", "dunes")));
+    }
+
+    @Test
+    void streamPlanets_WithAcceptEncodingGzip_IsCompressedByTomcat() throws Exception {
+        HttpResponse<byte[]> response = get("/planets/stream?terrain=dunes", MediaType.APPLICATION_NDJSON_VALUE, "gzip");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        String body = new String(ContentCodingTest.decompress(ContentCoding.GZIP, response.body()), StandardCharsets.UTF_8);
+        assertThat(body.lines()).hasSize(100).allSatisfy(line -> assertThat(line).contains("\"terrain\":\"dunes\""));
+    }
+
+    @Test
+    void listPlanets_WithAcceptEncodingZstd_ServesCachedBodyOnce() throws Exception {
+        HttpResponse<byte[]> first = get("/planets?terrain=dunes", MediaType.APPLICATION_JSON_VALUE, "zstd;q=1, gzip;q=0.5");
+        HttpResponse<byte[]> second = get("/planets?terrain=dunes", MediaType.APPLICATION_JSON_VALUE, "zstd;q=1, gzip;q=0.5");
+
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("zstd");
+        assertThat(first.headers().firstValue(HttpHeaders.ETAG)).hasValueSatisfying(tag -> assertThat(tag).endsWith("-zstd\""));
+        assertThat(second.body()).isEqualTo(first.body());
+        byte[] json = ContentCodingTest.decompress(ContentCoding.ZSTD, first.body());
+        assertThat(objectMapper.readTree(json)).hasSize(100);
+        assertThat(first.body().length).isLessThan(json.length / 4);
+
+        HttpResponse<byte[]> plain = get("/planets?terrain=dunes", MediaType.APPLICATION_JSON_VALUE, "identity");
+        assertThat(plain.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(plain.body()).isEqualTo(json);
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header(HttpHeaders.ACCEPT, accept)
+            .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
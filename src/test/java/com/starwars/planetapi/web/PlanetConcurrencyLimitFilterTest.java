@@ -0,0 +1,78 @@
+package com.starwars.planetapi.web;
+
+import com.netflix.concurrency.limits.limit.FixedLimit;
+import com.netflix.concurrency.limits.limiter.SimpleLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanetConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SimpleLimiter<Void> reads = SimpleLimiter.newBuilder().limit(FixedLimit.of(1)).build();
+    private final SimpleLimiter<Void> writes = SimpleLimiter.newBuilder().limit(FixedLimit.of(1)).build();
+    private final PlanetConcurrencyLimitFilter filter = new PlanetConcurrencyLimitFilter(reads, writes, meterRegistry);
+
+    @Test
+    void filter_WithReadLimitReached_RejectsReadButNotWrite() throws Exception {
+        List<MockHttpServletResponse> nested = new ArrayList<>();
+        FilterChain whileReading = (request, response) -> {
+            nested.add(perform("GET", (req, res) -> { }));
+            nested.add(perform("POST", (req, res) -> { }));
+        };
+
+        MockHttpServletResponse outer = perform("GET", whileReading);
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(nested.get(0).getStatus()).isEqualTo(503);
+        assertThat(nested.get(0).getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(nested.get(1).getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("planet.http.concurrency.rejected").tag("kind", "read").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_AfterRequestCompletes_ReleasesSlot() throws Exception {
+        assertThat(perform("GET", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(perform("GET", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(reads.getInflight()).isZero();
+    }
+
+    @Test
+    void filter_WhenChainFails_ReleasesSlot() {
+        FilterChain failing = (req, res) -> {
+            throw new IllegalStateException("falha");
+        };
+        assertThatThrownBy(() -> perform("DELETE", failing)).isInstanceOf(IllegalStateException.class);
+        assertThat(writes.getInflight()).isZero();
+    }
+
+    @Test
+    void filter_WithAsyncRequest_KeepsSlotUntilComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/planets/stream");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        assertThat(reads.getInflight()).isEqualTo(1);
+
+        request.getAsyncContext().complete();
+        assertThat(reads.getInflight()).isZero();
+    }
+
+    private MockHttpServletResponse perform(String method, FilterChain chain) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, "/planets"), response, chain);
+        return response;
+    }
+}
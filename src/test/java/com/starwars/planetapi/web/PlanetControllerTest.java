@@ -1,38 +1,87 @@
 package com.starwars.planetapi.web;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetBatchResult;
+import com.starwars.planetapi.domain.PlanetCursor;
+import com.starwars.planetapi.domain.PlanetFacets;
+import com.starwars.planetapi.domain.PlanetListVersion;
+import com.starwars.planetapi.domain.PlanetNameMatch;
+import com.starwars.planetapi.domain.PlanetPage;
 import com.starwars.planetapi.domain.PlanetService;
+import com.starwars.planetapi.domain.PlanetUpsert;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.TokenMatch;
+import com.starwars.planetapi.domain.exception.CursorInvalidoException;
+import com.starwars.planetapi.domain.exception.EsperaEsgotadaException;
+import com.starwars.planetapi.domain.exception.PlanetJaExisteException;
+import com.starwars.planetapi.domain.exception.PlanetNaoEncontradaException;
+import com.starwars.planetapi.domain.exception.TokenAusenteException;
+import com.starwars.planetapi.domain.outbox.PlanetChange;
+import com.starwars.planetapi.domain.outbox.PlanetChangePage;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.http.MockHttpOutputMessage;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static com.starwars.planetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PlanetController.class)
+@Import(PlanetCompressedLists.class)
 class PlanetControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
+    @Autowired private PlanetJsonConverter planetJsonConverter;
     @MockitoBean private PlanetService planetService;
 
+    private static final Set<String> ALL_FIELDS = Set.copyOf(PlanetView.FIELDS);
+
     @Test
     void createPlanet_WithValidData_ReturnsCreated() throws Exception {
         when(planetService.create(PLANET)).thenReturn(PLANET);
@@ -45,6 +94,22 @@ class PlanetControllerTest {
         .andExpect(jsonPath("$").value(PLANET));
     }
 
+    @Test
+    void createPlanet_WithValidData_ReturnsEtagAndLastModified() throws Exception {
+        Planet created = new Planet(1L, "Tatooine", "arid", "desert");
+        created.setVersion(0L);
+        created.setLastModified(Instant.parse("2024-05-04T10:15:30Z"));
+        when(planetService.create(any())).thenReturn(created);
+
+        mockMvc.perform(
+            post("/planets")
+                .content(objectMapper.writeValueAsString(new Planet("Tatooine", "arid", "desert")))
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1-0\""))
+        .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sat, 04 May 2024 10:15:30 GMT"));
+    }
+
     @Test
     void createPlanet_WithInvalidData_ReturnsBadRequest() throws Exception {
         Planet emptyPlanet = new Planet();
@@ -72,6 +137,162 @@ class PlanetControllerTest {
         .andExpect(status().isConflict());
     }
 
+    @Test
+    void createPlanet_WithExistingNameDetectedByRowCount_ReturnConflit() throws Exception {
+        when(planetService.create(any())).thenThrow(new PlanetJaExisteException(PLANET.getName()));
+        mockMvc.perform(
+            post("/planets")
+                .content(objectMapper.writeValueAsString(PLANET))
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isConflict())
+        .andExpect(content().string("Já existe um planeta com o nome name."));
+    }
+
+    @Test
+    void upsertPlanet_ByNewOrExistingName_ReturnsCreatedOrOk() throws Exception {
+        Planet hoth = new Planet(10L, "Hoth", "frozen", "tundra");
+        when(planetService.upsert(any(), any())).thenReturn(
+            new PlanetUpsert(hoth, PlanetUpsert.Status.CREATED),
+            new PlanetUpsert(hoth, PlanetUpsert.Status.UNCHANGED));
+        String body = "{\"climate\":\"frozen\",\"terrain\":\"tundra\"}";
+
+        mockMvc.perform(put("/planets/name/Hoth").content(body).contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(10));
+        mockMvc.perform(put("/planets/name/Hoth").content(body).contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(10));
+        verify(planetService, times(2)).upsert(eq("Hoth"), any());
+    }
+
+    @Test
+    void upsertPlanet_WithInvalidData_ReturnsUnprocessableEntity() throws Exception {
+        when(planetService.upsert(any(), any())).thenAnswer(invocation -> {
+            Planet planet = invocation.getArgument(1);
+            Set<ConstraintViolation<Planet>> violations = Validation.buildDefaultValidatorFactory().getValidator()
+                .validate(new Planet("Hoth", planet.getClimate(), planet.getTerrain()));
+            throw new ConstraintViolationException(violations);
+        });
+        mockMvc.perform(put("/planets/name/Hoth").content("{\"climate\":\"\",\"terrain\":\"tundra\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.detail").value(startsWith("climate: ")));
+    }
+
+    @Test
+    void createPlanets_InBatchFromJsonArray_ReturnsResultPerRow() throws Exception {
+        when(planetService.createAll(any())).thenReturn(List.of(
+            new PlanetBatchResult(0, TATOOINE.getName(), PlanetBatchResult.Status.CREATED, 1L, null),
+            new PlanetBatchResult(1, ALDERAAN.getName(), PlanetBatchResult.Status.CONFLICT, null, "conflito")));
+        mockMvc.perform(
+            post("/planets/batch")
+                .content(objectMapper.writeValueAsString(List.of(TATOOINE, ALDERAAN)))
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].status").value("CREATED"))
+        .andExpect(jsonPath("$[1].status").value("CONFLICT"));
+    }
+
+    @Test
+    void createPlanets_InBatchFromNdjson_ReadsOnePlanetPerLine() throws Exception {
+        when(planetService.createAll(any())).thenAnswer(invocation -> {
+            Iterator<Planet> planets = invocation.getArgument(0);
+            List<PlanetBatchResult> results = new ArrayList<>();
+            planets.forEachRemaining(planet -> results.add(new PlanetBatchResult(results.size(), planet.getName(), PlanetBatchResult.Status.CREATED, (long) results.size() + 1, null)));
+            return results;
+        });
+        String body = objectMapper.writeValueAsString(TATOOINE) + "\n" + objectMapper.writeValueAsString(ALDERAAN) + "\n";
+        mockMvc.perform(
+            post("/planets/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[1].name").value(ALDERAAN.getName()));
+    }
+
+    @Test
+    void createPlanets_InBatchFromNdjsonWithMalformedLine_ReportsLineAndCreatedRows() throws Exception {
+        when(planetService.createAll(any())).thenAnswer(invocation -> {
+            Iterator<Planet> planets = invocation.getArgument(0);
+            List<PlanetBatchResult> results = new ArrayList<>();
+            planets.forEachRemaining(planet -> results.add(new PlanetBatchResult(results.size(), planet.getName(), PlanetBatchResult.Status.CREATED, (long) results.size() + 1, null)));
+            return results;
+        });
+        String body = objectMapper.writeValueAsString(TATOOINE) + "\n" + objectMapper.writeValueAsString(ALDERAAN) + "\n"
+            + "{\"name\": \"Hoth\",,}\n" + objectMapper.writeValueAsString(PLANET) + "\n";
+        mockMvc.perform(
+            post("/planets/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.line").value(3))
+        .andExpect(jsonPath("$.created").value(2))
+        .andExpect(jsonPath("$.results", hasSize(2)))
+        .andExpect(jsonPath("$.results[1].name").value(ALDERAAN.getName()));
+    }
+
+    @Test
+    void createPlanets_InBatchFromCbor_ReadsPlanetList() throws Exception {
+        when(planetService.createAll(any())).thenAnswer(invocation -> {
+            Iterator<Planet> planets = invocation.getArgument(0);
+            List<PlanetBatchResult> results = new ArrayList<>();
+            planets.forEachRemaining(planet -> results.add(new PlanetBatchResult(results.size(), planet.getName(), PlanetBatchResult.Status.CREATED, (long) results.size() + 1, null)));
+            return results;
+        });
+        mockMvc.perform(
+            post("/planets/batch")
+                .content(new CBORMapper().writeValueAsBytes(List.of(TATOOINE, ALDERAAN)))
+                .contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[1].name").value(ALDERAAN.getName()));
+    }
+
+    @Test
+    void createPlanet_FromProtobuf_ReturnsCreatedAsProtobuf() throws Exception {
+        Planet created = new Planet(1L, PLANET.getName(), PLANET.getClimate(), PLANET.getTerrain());
+        when(planetService.create(PLANET)).thenReturn(created);
+
+        byte[] body = mockMvc.perform(
+            post("/planets")
+                .content(protobuf(PLANET, Planet.class))
+                .contentType(PlanetProtobufConverter.APPLICATION_PROTOBUF)
+                .accept(PlanetProtobufConverter.APPLICATION_PROTOBUF))
+        .andExpect(status().isCreated())
+        .andExpect(content().contentType(PlanetProtobufConverter.APPLICATION_PROTOBUF))
+        .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(body).isEqualTo(protobuf(created, Planet.class));
+    }
+
+    @Test
+    void listPlanets_WithBinaryAccept_NegotiatesCborSmileAndProtobuf() throws Exception {
+        List<PlanetView> views = PLANETS.stream().map(PlanetView::of).toList();
+        when(planetService.listVersion(null, null)).thenReturn(new PlanetListVersion(3, 3L, Instant.ofEpochMilli(1000)));
+        when(planetService.list(null, null, ALL_FIELDS)).thenReturn(views);
+        TypeReference<List<PlanetView>> viewList = new TypeReference<>() {};
+
+        byte[] cbor = mockMvc.perform(get("/planets").accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new CBORMapper().readValue(cbor, viewList)).isEqualTo(views);
+
+        byte[] smile = mockMvc.perform(get("/planets").accept(PlanetController.APPLICATION_SMILE_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(PlanetController.APPLICATION_SMILE_VALUE))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new SmileMapper().readValue(smile, viewList)).isEqualTo(views);
+
+        byte[] protobuf = mockMvc.perform(get("/planets").accept(PlanetProtobufConverter.APPLICATION_PROTOBUF))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(PlanetProtobufConverter.APPLICATION_PROTOBUF))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(protobuf).isEqualTo(protobuf(views, viewList.getType()));
+    }
+
     @Test
     void getPlanet_ByExistingId_ReturnsPlanet() throws Exception {
         when(planetService.get(1L)).thenReturn(Optional.of(PLANET));
@@ -81,6 +302,40 @@ class PlanetControllerTest {
         .andExpect(jsonPath("$").value(PLANET));
     }
 
+    @Test
+    void getPlanet_Twice_WritesPrecomputedJson() throws Exception {
+        when(planetService.get(1L)).thenReturn(Optional.of(TATOOINE));
+        long hits = planetJsonConverter.stats().hitCount();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(
+                get("/planets/1"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(content().json(objectMapper.writeValueAsString(TATOOINE), JsonCompareMode.STRICT));
+        }
+
+        assertThat(planetJsonConverter.stats().hitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    void getPlanetByName_WhenWaitingForSameLookupTimesOut_ReturnsServiceUnavailable() throws Exception {
+        when(planetService.findByName("Tatooine")).thenThrow(new EsperaEsgotadaException("findByName", Duration.ofSeconds(2)));
+        mockMvc.perform(
+            get("/planets/name/Tatooine"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void getPlanet_WithConnectionPoolExhausted_ReturnsServiceUnavailable() throws Exception {
+        when(planetService.get(1L)).thenThrow(new CannotGetJdbcConnectionException("pool esgotado"));
+        mockMvc.perform(
+            get("/planets/1"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
     @Test
     void getPlanet_ByUnexistingId_ReturnsNotFound() throws Exception {
         mockMvc.perform(
@@ -104,14 +359,100 @@ class PlanetControllerTest {
         .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getPlanet_WithCurrentEtag_ReturnsNotModifiedWithoutBody() throws Exception {
+        Planet planet = new Planet(1L, "Tatooine", "arid", "desert");
+        planet.setVersion(3L);
+        planet.setLastModified(Instant.parse("2024-05-04T10:15:30Z"));
+        when(planetService.get(1L)).thenReturn(Optional.of(planet));
+
+        mockMvc.perform(
+            get("/planets/1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+        .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sat, 04 May 2024 10:15:30 GMT"));
+
+        mockMvc.perform(
+            get("/planets/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+        mockMvc.perform(
+            get("/planets/1").header(HttpHeaders.IF_MODIFIED_SINCE, "Sat, 04 May 2024 10:15:30 GMT"))
+        .andExpect(status().isNotModified());
+
+        mockMvc.perform(
+            get("/planets/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Tatooine"));
+    }
+
+    @Test
+    void getPlanet_InEachFormat_SendsEtagPerFormatAndVaryAccept() throws Exception {
+        Planet planet = new Planet(1L, "Tatooine", "arid", "desert");
+        planet.setVersion(3L);
+        planet.setLastModified(Instant.parse("2024-05-04T10:15:30Z"));
+        when(planetService.get(1L)).thenReturn(Optional.of(planet));
+
+        mockMvc.perform(
+            get("/planets/1").accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1-3-cbor\""))
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        // O ETag do JSON não vale para o CBOR, nem o contrário.
+        mockMvc.perform(
+            get("/planets/1").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        mockMvc.perform(
+            get("/planets/1").header(HttpHeaders.ACCEPT, "application/x-protobuf;q=0.5, application/json;q=0.9")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        mockMvc.perform(
+            get("/planets/1").accept(MediaType.TEXT_HTML))
+        .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void listPlanets_WithOtherFormatEtag_ReturnsFullListing() throws Exception {
+        when(planetService.listVersion(null, null)).thenReturn(new PlanetListVersion(3, 3L, Instant.ofEpochMilli(1000)));
+        when(planetService.list(null, null, ALL_FIELDS)).thenReturn(PLANETS.stream().map(PlanetView::of).toList());
+
+        mockMvc.perform(
+            get("/planets").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"3-3-1000\""))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3-3-1000-cbor\""))
+        .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void listPlanets_WithCurrentEtag_ReturnsNotModifiedWithoutListing() throws Exception {
+        when(planetService.listVersion(null, null)).thenReturn(new PlanetListVersion(3, 3L, Instant.ofEpochMilli(1000)));
+
+        mockMvc.perform(
+            get("/planets").header(HttpHeaders.IF_NONE_MATCH, "\"3-3-1000\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+        verify(planetService, never()).list(any(), any(), any());
+    }
+
     @Test
     void listPlanets_ReturnsFilteredPlanets() throws Exception{
-        when(planetService.list(null, null)).thenReturn(PLANETS);
-        when(planetService.list(TATOOINE.getTerrain(), TATOOINE.getClimate())).thenReturn(List.of(TATOOINE));
+        when(planetService.listVersion(any(), any())).thenReturn(new PlanetListVersion(3, 3L, Instant.ofEpochMilli(1000)));
+        when(planetService.list(null, null, ALL_FIELDS)).thenReturn(PLANETS.stream().map(PlanetView::of).toList());
+        when(planetService.list(TATOOINE.getTerrain(), TATOOINE.getClimate(), ALL_FIELDS)).thenReturn(List.of(PlanetView.of(TATOOINE)));
 
         mockMvc.perform(
             get("/planets"))
         .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3-3-1000\""))
         .andExpect(jsonPath("$", hasSize(3)));
 
         mockMvc.perform(
@@ -121,15 +462,217 @@ class PlanetControllerTest {
         .andExpect(jsonPath("$[0]").value(TATOOINE));
     }
 
+    @Test
+    void listPlanets_WithAcceptEncoding_ServesPrecompressedJsonFromCache() throws Exception {
+        List<PlanetView> views = LongStream.rangeClosed(1, 100).mapToObj(id -> new PlanetView(id, "Planet " + id, "arid", "desert")).toList();
+        when(planetService.listVersion("desert", null)).thenReturn(new PlanetListVersion(100, 100L, Instant.ofEpochMilli(1000)));
+        when(planetService.list("desert", null, ALL_FIELDS)).thenReturn(views);
+
+        for (int i = 0; i < 2; i++) {
+            byte[] body = mockMvc.perform(
+                get("/planets?terrain=desert").header(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "zstd"))
+            .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"100-100-1000-zstd\""))
+            .andReturn().getResponse().getContentAsByteArray();
+            assertThat(ContentCodingTest.decompress(ContentCoding.ZSTD, body)).isEqualTo(objectMapper.writeValueAsBytes(views));
+        }
+        verify(planetService, times(1)).list("desert", null, ALL_FIELDS);
+
+        mockMvc.perform(
+            get("/planets?terrain=desert")
+                .header(HttpHeaders.ACCEPT_ENCODING, "zstd")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"100-100-1000-zstd\""))
+        .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void listPlanets_WithAcceptEncodingButSmallOrBinaryResponse_LeavesBodyUncompressed() throws Exception {
+        List<PlanetView> views = PLANETS.stream().map(PlanetView::of).toList();
+        when(planetService.listVersion(null, "temperate")).thenReturn(new PlanetListVersion(3, 3L, Instant.ofEpochMilli(1000)));
+        when(planetService.list(null, "temperate", ALL_FIELDS)).thenReturn(views);
+
+        mockMvc.perform(
+            get("/planets?climate=temperate").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(content().json(objectMapper.writeValueAsString(views), JsonCompareMode.STRICT));
+
+        mockMvc.perform(
+            get("/planets?climate=temperate")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3-3-1000-cbor\""));
+    }
+
+    @Test
+    void listPlanets_WithFields_ReturnsOnlyRequestedFields() throws Exception {
+        when(planetService.listVersion(null, null)).thenReturn(new PlanetListVersion(3, 3L, Instant.ofEpochMilli(1000)));
+        when(planetService.list(null, null, Set.of("id", "name"))).thenReturn(List.of(new PlanetView(1L, "Tatooine", null, null)));
+
+        mockMvc.perform(
+            get("/planets?fields=name,id"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3-3-1000;id,name\""))
+        .andExpect(content().json("[{\"id\":1,\"name\":\"Tatooine\"}]", JsonCompareMode.STRICT));
+    }
+
+    @Test
+    void listPlanets_WithUnknownField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(
+            get("/planets?fields=id,population"))
+        .andExpect(status().isBadRequest());
+    }
+
     @Test
     void listPlanets_ReturnNoPlanets() throws Exception{
-        when(planetService.list(null, null)).thenReturn(Collections.EMPTY_LIST);
+        when(planetService.listVersion(null, null)).thenReturn(new PlanetListVersion(0, null, null));
+        when(planetService.list(null, null, ALL_FIELDS)).thenReturn(List.of());
         mockMvc.perform(
             get("/planets"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    @Test
+    void listPlanets_ByTokens_ReturnsMatchingPlanets() throws Exception {
+        when(planetService.listByTokens("mountains,jungle", null, TokenMatch.ANY)).thenReturn(List.of(ALDERAAN, YAVINIV));
+        mockMvc.perform(
+            get("/planets/contains?terrain=mountains,jungle&match=ANY"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void listPlanets_ByTokensWithoutTokens_ReturnsBadRequest() throws Exception {
+        when(planetService.listByTokens(null, " , ", TokenMatch.ALL)).thenThrow(new TokenAusenteException());
+        mockMvc.perform(
+            get("/planets/contains?climate= , "))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().string(containsString("token")));
+    }
+
+    @Test
+    void countPlanets_WithFilters_ReturnsCount() throws Exception {
+        when(planetService.count(null, "temperate")).thenReturn(2L);
+        mockMvc.perform(
+            get("/planets/count?climate=temperate"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("2"));
+    }
+
+    @Test
+    void facetPlanets_WithFilters_ReturnsCountsByToken() throws Exception {
+        when(planetService.facets("grassl", null)).thenReturn(
+            new PlanetFacets(2, Map.of("grassl", 2L), Map.of("temperate", 2L, "tropical", 1L)));
+        mockMvc.perform(
+            get("/planets/facets?terrain=grassl"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.count").value(2))
+        .andExpect(jsonPath("$.terrain.grassl").value(2))
+        .andExpect(jsonPath("$.climate.temperate").value(2))
+        .andExpect(jsonPath("$.climate.tropical").value(1));
+        verify(planetService, never()).list(any(), any(), any());
+    }
+
+    @Test
+    void searchPlanets_ByName_ReturnsRankedMatches() throws Exception {
+        when(planetService.search("tatoine", PlanetService.DEFAULT_SEARCH_SIZE)).thenReturn(
+            List.of(new PlanetNameMatch(TATOOINE.getId(), TATOOINE.getName(), PlanetNameMatch.Match.FUZZY, 1)));
+        mockMvc.perform(
+            get("/planets/search?q=tatoine"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].name").value(TATOOINE.getName()))
+        .andExpect(jsonPath("$[0].match").value("FUZZY"))
+        .andExpect(jsonPath("$[0].distance").value(1));
+    }
+
+    @Test
+    void searchPlanets_WithoutQuery_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(
+            get("/planets/search"))
+        .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pagePlanets_ReturnsItemsAndNextCursor() throws Exception {
+        String next = PlanetCursor.encode(TATOOINE.getId());
+        when(planetService.page(null, null, null, 1)).thenReturn(new PlanetPage(List.of(TATOOINE), next));
+        mockMvc.perform(
+            get("/planets/page?limit=1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0]").value(TATOOINE))
+        .andExpect(jsonPath("$.next").value(next));
+    }
+
+    @Test
+    void pagePlanets_WithInvalidCursor_ReturnsBadRequest() throws Exception {
+        when(planetService.page(null, null, "invalido", PlanetService.DEFAULT_PAGE_SIZE)).thenThrow(new CursorInvalidoException("invalido"));
+        mockMvc.perform(
+            get("/planets/page?cursor=invalido"))
+        .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listChanges_SinceCursor_ReturnsChangesAndNextCursor() throws Exception {
+        String since = PlanetCursor.encode(4L);
+        String next = PlanetCursor.encode(5L);
+        when(planetService.changes(since, PlanetService.DEFAULT_PAGE_SIZE)).thenReturn(new PlanetChangePage(
+            List.of(new PlanetChange(5, PlanetChange.Type.REMOVED, 1L, null, null, null, Instant.ofEpochMilli(1000))), next));
+
+        mockMvc.perform(
+            get("/planets/changes").param("since", since))
+        .andExpect(status().isOk())
+        .andExpect(content().json("""
+            {"changes":[{"seq":5,"type":"REMOVED","planetId":1,"occurredAt":"1970-01-01T00:00:01Z"}],"next":"%s"}
+            """.formatted(next), JsonCompareMode.STRICT));
+    }
+
+    @Test
+    void streamPlanets_AsNdjson_WritesOnePlanetPerLine() throws Exception {
+        mockStream();
+        MvcResult result = mockMvc.perform(
+            get("/planets/stream").accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(PLANETS.size());
+        assertThat(objectMapper.readValue(lines[0], Planet.class)).isEqualTo(TATOOINE);
+    }
+
+    @Test
+    void streamPlanets_AsJsonArray_WritesAllPlanets() throws Exception {
+        mockStream();
+        MvcResult result = mockMvc.perform(
+            get("/planets/stream").accept(MediaType.APPLICATION_JSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(3)))
+        .andExpect(jsonPath("$[0]").value(TATOOINE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockStream() {
+        doAnswer(invocation -> {
+            Consumer<Planet> consumer = invocation.getArgument(2);
+            PLANETS.forEach(consumer);
+            return null;
+        }).when(planetService).stream(isNull(), isNull(), any(Consumer.class));
+    }
+
     @Test
     void removePlanet_ByExistingId_ReturnsNoContent() throws Exception {
         mockMvc.perform(
@@ -138,11 +681,33 @@ class PlanetControllerTest {
     }
 
     @Test
-    void removePlanet_ByUnexistingId_ReturnsNoContent() throws Exception {
+    void removePlanet_ByUnexistingId_ReturnsNotFound() throws Exception {
         final Long planetIdInvalid = 999L;
-        doThrow(new EmptyResultDataAccessException(1)).when(planetService).remove(planetIdInvalid);
+        doThrow(new PlanetNaoEncontradaException(planetIdInvalid)).when(planetService).remove(planetIdInvalid);
         mockMvc.perform(
             delete("/planets/" + planetIdInvalid))
         .andExpect(status().isNotFound());
     }
+
+    @Test
+    void removePlanets_ByIds_ReturnsNoContent() throws Exception {
+        when(planetService.removeAll(List.of(1L, 2L, 3L))).thenReturn(2);
+        mockMvc.perform(
+            delete("/planets").param("ids", "1,2,3"))
+        .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void removePlanets_ByUnexistingIds_ReturnsNotFound() throws Exception {
+        when(planetService.removeAll(List.of(998L, 999L))).thenThrow(new PlanetNaoEncontradaException(List.of(998L, 999L)));
+        mockMvc.perform(
+            delete("/planets").param("ids", "998", "999"))
+        .andExpect(status().isNotFound());
+    }
+
+    private static byte[] protobuf(Object value, Type type) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        new PlanetProtobufConverter().write(value, type, PlanetProtobufConverter.APPLICATION_PROTOBUF, message);
+        return message.getBodyAsBytes();
+    }
 }
@@ -0,0 +1,96 @@
+package com.starwars.planetapi.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetView;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static com.starwars.planetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanetJsonConverterTest {
+
+    private static final Type PLANET_LIST = new TypeReference<List<Planet>>() {}.getType();
+    private static final Type VIEW_LIST = new TypeReference<List<PlanetView>>() {}.getType();
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final PlanetJsonConverter converter = new PlanetJsonConverter(objectMapper, 100);
+
+    @Test
+    void canWrite_WithPlanetTypes_OnlyWritesJson() {
+        assertThat(converter.canWrite(Planet.class, Planet.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(PLANET_LIST, List.class, null)).isTrue();
+        assertThat(converter.canWrite(VIEW_LIST, List.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(Planet.class, Planet.class, MediaType.APPLICATION_XML)).isFalse();
+        assertThat(converter.canWrite(new TypeReference<List<String>>() {}.getType(), List.class, null)).isFalse();
+        assertThat(converter.canWrite(String.class, String.class, null)).isFalse();
+        assertThat(converter.canRead(Planet.class, null, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(PLANET_LIST, null, MediaType.APPLICATION_JSON)).isFalse();
+        assertThatThrownBy(() -> converter.read(Planet.class, null, new MockHttpInputMessage(new byte[0])))
+            .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    @Test
+    void write_PlanetAndLists_MatchesJackson() throws IOException {
+        List<PlanetView> views = PLANETS.stream().map(PlanetView::of).toList();
+
+        assertThat(write(TATOOINE, Planet.class)).isEqualTo(objectMapper.writeValueAsString(TATOOINE));
+        assertThat(write(PLANETS, PLANET_LIST)).isEqualTo(objectMapper.writeValueAsString(PLANETS));
+        assertThat(write(views, VIEW_LIST)).isEqualTo(objectMapper.writeValueAsString(views));
+        assertThat(write(List.of(), VIEW_LIST)).isEqualTo("[]");
+    }
+
+    @Test
+    void write_SamePlanetTwice_ReusesEncodedBytes() throws IOException {
+        write(TATOOINE, Planet.class);
+        write(List.of(PlanetView.of(TATOOINE)), VIEW_LIST);
+
+        assertThat(converter.stats().missCount()).isEqualTo(1);
+        assertThat(converter.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void write_WithChangedPlanetBeforeInvalidation_EncodesNewValues() throws IOException {
+        write(TATOOINE, Planet.class);
+        Planet changed = new Planet(TATOOINE.getId(), TATOOINE.getName(), "arid", "canyons");
+
+        assertThat(write(changed, Planet.class)).isEqualTo(objectMapper.writeValueAsString(changed));
+    }
+
+    @Test
+    void write_AfterRemoval_EncodesAgain() throws IOException {
+        write(TATOOINE, Planet.class);
+        converter.onRemoved(new PlanetRemovedEvent(TATOOINE.getId()));
+        write(TATOOINE, Planet.class);
+
+        assertThat(converter.stats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void write_WithPartialViewOrNullField_UsesJacksonWithoutCaching() throws IOException {
+        List<PlanetView> partial = List.of(new PlanetView(null, "Tatooine", null, null), new PlanetView(2L, "Alderaan", null, null));
+
+        assertThat(write(partial, VIEW_LIST)).isEqualTo("[{\"name\":\"Tatooine\"},{\"id\":2,\"name\":\"Alderaan\"}]");
+        assertThat(write(PLANET, Planet.class)).isEqualTo(objectMapper.writeValueAsString(PLANET));
+        assertThat(converter.stats().requestCount()).isZero();
+    }
+
+    private String write(Object value, Type type) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(value, type, MediaType.APPLICATION_JSON, message);
+        assertThat(message.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        return message.getBodyAsString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.starwars.planetapi.web;
+
+import com.starwars.planetapi.domain.PlanetRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Injeta lentidão no banco: com a falha ligada cada listagem ocupa a única "conexão" por {@link #QUERY_TIME}.
+ * Sem limite, numa rajada de {@link #BURST} requisições a última esperaria {@code BURST * QUERY_TIME}; com ele
+ * o limite de leitura cai e o excedente recebe 503. Com {@code smoothing=1} cada amostra ajusta o limite por
+ * inteiro, então duas rajadas bastam. Roda no {@code verify}, pelo failsafe, por subir um contexto só seu.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:overload;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa", "spring.datasource.password=",
+    "planet.concurrency.read.initial-limit=30",
+    "planet.concurrency.read.max-limit=30",
+    "planet.concurrency.read.min-limit=1",
+    "planet.concurrency.read.smoothing=1"
+})
+class PlanetOverloadIT {
+
+    private static final Duration QUERY_TIME = Duration.ofMillis(20);
+    private static final int BURST = 60;
+    private static final int WARMUP = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SlowDatabase slowDatabase;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void listPlanets_WhenDatabaseSlowsDown_ShedsLoadAndKeepsLatencyBounded() throws Exception {
+        // Latência de referência com o banco rápido.
+        for (int i = 0; i < WARMUP; i++) {
+            assertThat(get("/planets?terrain=warm" + i).status()).isEqualTo(200);
+        }
+
+        slowDatabase.slow.set(true);
+        List<Result> results = new ArrayList<>();
+        for (int wave = 0; wave < 2; wave++) {
+            results = burst(wave);
+        }
+
+        // Com o limite já ajustado, ninguém espera perto do que a fila inteira levaria.
+        Duration bound = QUERY_TIME.multipliedBy(BURST / 2);
+        assertThat(results).allSatisfy(result -> assertThat(result.latency()).isLessThan(bound));
+        assertThat(results).filteredOn(result -> result.status() == 200).isNotEmpty();
+        assertThat(results).filteredOn(result -> result.status() == 503).isNotEmpty()
+            .allSatisfy(result -> assertThat(result.retryAfter()).isEqualTo("1"));
+        assertThat(meterRegistry.get("planet.http.concurrency.limit").tag("kind", "read").gauge().value()).isLessThan(30);
+        assertThat(meterRegistry.get("planet.http.concurrency.rejected").tag("kind", "read").counter().count()).isPositive();
+    }
+
+    private List<Result> burst(int wave) throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < BURST; i++) {
+                String path = "/planets?terrain=wave" + wave + "-" + i;
+                futures.add(executor.submit(() -> get(path)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    private Result get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return new Result(response.statusCode(), response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null),
+            Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private record Result(int status, String retryAfter, Duration latency) {
+    }
+
+    /**
+     * Envolve o {@link PlanetRepository} num proxy que, com a falha ligada, segura {@code findViews} pela
+     * "conexão" única antes de consultar o banco.
+     */
+    @TestConfiguration
+    static class SlowDatabase implements BeanPostProcessor {
+
+        final AtomicBoolean slow = new AtomicBoolean();
+        private final Semaphore connection = new Semaphore(1, true);
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof PlanetRepository)) {
+                return bean;
+            }
+            ProxyFactory proxy = new ProxyFactory(bean);
+            proxy.addAdvice((MethodInterceptor) invocation -> {
+                if (slow.get() && invocation.getMethod().getName().equals("findViews")) {
+                    connection.acquire();
+                    try {
+                        Thread.sleep(QUERY_TIME);
+                    } finally {
+                        connection.release();
+                    }
+                }
+                return invocation.proceed();
+            });
+            return proxy.getProxy();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.starwars.planetapi.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.protobuf.CodedOutputStream;
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.PlanetView;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.HexFormat;
+import java.util.List;
+
+import static com.starwars.planetapi.common.PlanetConstants.*;
+import static com.starwars.planetapi.web.PlanetProtobufConverter.APPLICATION_PROTOBUF;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanetProtobufConverterTest {
+
+    private static final Type PLANET_LIST = new TypeReference<List<Planet>>() {}.getType();
+    private static final Type VIEW_LIST = new TypeReference<List<PlanetView>>() {}.getType();
+
+    private final PlanetProtobufConverter converter = new PlanetProtobufConverter();
+
+    @Test
+    void canReadAndWrite_WithPlanetTypes_OnlyProtobuf() {
+        assertThat(converter.canRead(Planet.class, null, APPLICATION_PROTOBUF)).isTrue();
+        assertThat(converter.canRead(PLANET_LIST, null, APPLICATION_PROTOBUF)).isTrue();
+        assertThat(converter.canRead(VIEW_LIST, null, APPLICATION_PROTOBUF)).isFalse();
+        assertThat(converter.canWrite(VIEW_LIST, List.class, APPLICATION_PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(Planet.class, Planet.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(String.class, String.class, APPLICATION_PROTOBUF)).isFalse();
+    }
+
+    @Test
+    void write_Planet_FollowsProtoSchema() throws IOException {
+        // id=1 (campo 1, varint), name="Tatooine" (campo 2), climate="arid" (campo 3), terrain="desert" (campo 4)
+        assertThat(HexFormat.of().formatHex(write(TATOOINE, Planet.class)))
+            .isEqualTo("0801" + "1208" + hex("Tatooine") + "1a04" + hex("arid") + "2206" + hex("desert"));
+    }
+
+    @Test
+    void writeAndRead_PlanetList_RoundTrips() throws IOException {
+        byte[] body = write(PLANETS, PLANET_LIST);
+
+        assertThat(read(body, PLANET_LIST)).isEqualTo(PLANETS);
+        assertThat(read(write(TATOOINE, Planet.class), Planet.class)).isEqualTo(TATOOINE);
+        assertThat(read(new byte[0], PLANET_LIST)).isEqualTo(List.of());
+    }
+
+    @Test
+    void write_PartialViews_LeavesFieldsOut() throws IOException {
+        byte[] body = write(List.of(new PlanetView(null, "Tatooine", null, null)), VIEW_LIST);
+
+        assertThat(read(body, PLANET_LIST)).isEqualTo(List.of(new Planet(null, "Tatooine", null, null)));
+    }
+
+    @Test
+    void read_WithUnknownField_SkipsIt() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(body);
+        output.writeString(2, "Hoth");
+        output.writeInt32(9, 42);
+        output.writeString(4, "tundra");
+        output.flush();
+
+        assertThat(read(body.toByteArray(), Planet.class)).isEqualTo(new Planet(null, "Hoth", null, "tundra"));
+    }
+
+    @Test
+    void read_WithTruncatedOrMalformedMessage_ThrowsIOException() {
+        byte[] truncated = HexFormat.of().parseHex("1208" + hex("Tato"));
+
+        assertThatThrownBy(() -> read(truncated, Planet.class)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read(HexFormat.of().parseHex("0c"), Planet.class)).isInstanceOf(IOException.class);
+    }
+
+    private byte[] write(Object value, Type type) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(value, type, APPLICATION_PROTOBUF, message);
+        assertThat(message.getHeaders().getContentType()).isEqualTo(APPLICATION_PROTOBUF);
+        return message.getBodyAsBytes();
+    }
+
+    private Object read(byte[] body, Type type) throws IOException {
+        return converter.read(type, null, new MockHttpInputMessage(body));
+    }
+
+    private static String hex(String value) {
+        return HexFormat.of().formatHex(value.getBytes());
+    }
+}
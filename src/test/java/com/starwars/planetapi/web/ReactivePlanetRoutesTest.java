@@ -0,0 +1,161 @@
+package com.starwars.planetapi.web;
+
+import com.starwars.planetapi.domain.Planet;
+import com.starwars.planetapi.domain.event.PlanetCreatedEvent;
+import com.starwars.planetapi.domain.event.PlanetRemovedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.starwars.planetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactive;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa", "spring.datasource.password=",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=MySQL;DB_CLOSE_DELAY=-1"
+})
+@Sql(scripts = {"/imports_planets.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(statements = {"ALTER TABLE planets ALTER COLUMN id RESTART WITH 100"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/remove_planets.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class ReactivePlanetRoutesTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListenerThreads listenerThreads;
+
+    @Test
+    void createPlanet_WithValidData_ReturnsCreated() {
+        webTestClient.post().uri("/planets").bodyValue(PLANET)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody()
+            .jsonPath("$.id").isNotEmpty()
+            .jsonPath("$.name").isEqualTo(PLANET.getName());
+    }
+
+    @Test
+    void createPlanet_WithInvalidOrExistingData_ReturnsSameErrorsAsMvc() {
+        webTestClient.post().uri("/planets").bodyValue(INVALID_PLANET)
+            .exchange()
+            .expectStatus().isEqualTo(422);
+
+        webTestClient.post().uri("/planets").bodyValue(new Planet(TATOOINE.getName(), "arid", "desert"))
+            .exchange()
+            .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void createPlanet_WithUnsupportedContentType_ReturnsUnsupportedMediaType() {
+        webTestClient.post().uri("/planets").contentType(MediaType.TEXT_PLAIN).bodyValue("Hoth")
+            .exchange()
+            .expectStatus().isEqualTo(415);
+    }
+
+    @Test
+    void createAndRemovePlanet_RecordsOutboxAndRunsListenersOffEventLoop() {
+        listenerThreads.names.clear();
+        long lastSeq = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM planet_changes", Long.class);
+        Planet created = webTestClient.post().uri("/planets").bodyValue(PLANET)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(Planet.class).returnResult().getResponseBody();
+        webTestClient.delete().uri("/planets/{id}", created.getId()).exchange().expectStatus().isNoContent();
+
+        assertThat(jdbcTemplate.queryForList("SELECT change_type FROM planet_changes WHERE seq > ? AND planet_id = ? ORDER BY seq",
+            String.class, lastSeq, created.getId())).containsExactly("CREATED", "REMOVED");
+        assertThat(listenerThreads.names).hasSize(2).allSatisfy(name -> assertThat(name).startsWith("boundedElastic"));
+    }
+
+    @Test
+    void getPlanet_ByIdAndName_ReturnsPlanetOrNotFound() {
+        webTestClient.get().uri("/planets/1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Planet.class).isEqualTo(TATOOINE);
+
+        webTestClient.get().uri("/planets/name/{name}", TATOOINE.getName())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Planet.class).isEqualTo(TATOOINE);
+
+        webTestClient.get().uri("/planets/99")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void listPlanets_AsNdjson_StreamsFilteredPlanetsOnDemand() {
+        Flux<Planet> planets = webTestClient.get().uri("/planets?climate=TEMPERATE")
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Planet.class)
+            .getResponseBody();
+
+        StepVerifier.create(planets, 0)
+            .thenRequest(1)
+            .expectNextMatches(planet -> planet.getName().equals("Alderaan"))
+            .verifyComplete();
+    }
+
+    @Test
+    void listPlanets_AsJson_ReturnsAllPlanetsOrderedById() {
+        webTestClient.get().uri("/planets")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(Planet.class).hasSize(3).contains(TATOOINE);
+    }
+
+    @Test
+    void removePlanet_ByExistingOrUnexistingId_ReturnsNoContentOrNotFound() {
+        webTestClient.delete().uri("/planets/1").exchange().expectStatus().isNoContent();
+        webTestClient.delete().uri("/planets/1").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/planets/1").exchange().expectStatus().isNotFound();
+    }
+
+    @TestConfiguration
+    static class ListenerThreadsConfig {
+
+        @Bean
+        ListenerThreads listenerThreads() {
+            return new ListenerThreads();
+        }
+    }
+
+    static class ListenerThreads {
+
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void onCreated(PlanetCreatedEvent event) {
+            names.add(Thread.currentThread().getName());
+        }
+
+        @EventListener
+        void onRemoved(PlanetRemovedEvent event) {
+            names.add(Thread.currentThread().getName());
+        }
+    }
+}